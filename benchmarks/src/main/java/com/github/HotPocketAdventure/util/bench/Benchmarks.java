@@ -0,0 +1,25 @@
+package com.github.HotPocketAdventure.util.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached so every result reports its allocation rate.
+ * <br>Accepts the usual JMH command line, e.g. a benchmark name regex or -p numOptions=1000.
+ * @author Michael Bradley
+ *
+ */
+public class Benchmarks {
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,58 @@
+package com.github.HotPocketAdventure.util.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.HotPocketAdventure.util.Menu;
+
+/**
+ * Measures the choice tracking queries and bulk updates.
+ * @author Michael Bradley
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChoiceTrackingBenchmark {
+
+	@Param({"10", "10000", "1000000"})
+	public int numOptions;
+
+	private Menu menu;
+	private boolean complete;
+
+	@Setup
+	public void setup() {
+		menu = Menus.generate(numOptions);
+	}
+
+	@Benchmark
+	public int getNumChosen() {
+		return menu.getNumChosen();
+	}
+
+	@Benchmark
+	public boolean isComplete() {
+		return menu.isComplete();
+	}
+
+	@Benchmark
+	public Menu setComplete() {
+		complete = !complete;
+		return menu.setComplete(complete);
+	}
+}
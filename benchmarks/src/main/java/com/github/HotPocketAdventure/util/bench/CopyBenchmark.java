@@ -0,0 +1,60 @@
+package com.github.HotPocketAdventure.util.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.HotPocketAdventure.util.Menu;
+
+/**
+ * Measures copying a template menu with the copy constructor and with {@link Menu#copy(Menu)},
+ * and copying then choosing an option, which makes the copy take its own chosen flags.
+ * @author Michael Bradley
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyBenchmark {
+
+	@Param({"10", "1000", "100000"})
+	public int numOptions;
+
+	private Menu template;
+	private Menu target;
+
+	@Setup
+	public void setup() {
+		template = Menus.generate(numOptions);
+		target = new Menu();
+	}
+
+	@Benchmark
+	public Menu copyConstructor() {
+		return new Menu(template);
+	}
+
+	@Benchmark
+	public Menu copy() {
+		target.copy(template);
+		return target;
+	}
+
+	@Benchmark
+	public Menu copyThenChoose() {
+		return new Menu(template).setChosenAt(0, !template.isChosenAt(0));
+	}
+}
@@ -0,0 +1,105 @@
+package com.github.HotPocketAdventure.util.bench;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.HotPocketAdventure.util.ChoiceReader;
+import com.github.HotPocketAdventure.util.Menu;
+import com.github.HotPocketAdventure.util.MenuConsole;
+
+/**
+ * Measures choice parsing from in-memory streams, both through the bare reader and through {@link Menu#getInput(boolean)},
+ * and headless {@link Menu#replay(ChoiceReader, boolean) replay} of the same streams.
+ * <br>With invalid input every valid choice is preceded by a junk token that must be rejected.
+ * @author Michael Bradley
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark {
+
+	private static final int CHOICES = 10000;
+
+	@Param({"valid", "invalid"})
+	public String input;
+
+	private byte[] data;
+	private int[] choices;
+	private Menu menu;
+
+	@Setup
+	public void setup() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < CHOICES; i++) {
+			if (input.equals("invalid")) {
+				sb.append("x").append(i).append("y ");
+			}
+			sb.append(i % 3 + 1).append('\n');
+		}
+		data = sb.toString().getBytes(StandardCharsets.US_ASCII);
+
+		choices = new int[CHOICES];
+		for (int i = 0; i < CHOICES; i++) {
+			choices[i] = i % 3 + 1;
+		}
+
+		menu = Menus.generate(3);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CHOICES)
+	public long parse() {
+		ChoiceReader reader = new ChoiceReader(new ByteArrayInputStream(data));
+		long sum = 0;
+		int token;
+
+		while ((token = reader.next()) != ChoiceReader.END) {
+			if (token == ChoiceReader.INTEGER) {
+				sum += reader.getValue();
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CHOICES)
+	public long getInput() {
+		menu.setConsole(new MenuConsole(new ByteArrayInputStream(data), Menus.NULL_OUTPUT));
+		long sum = 0;
+
+		for (int i = 0; i < CHOICES; i++) {
+			sum += menu.getInput(true).getChoice();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CHOICES)
+	public long replay() {
+		return menu.replay(new ChoiceReader(new ByteArrayInputStream(data)), true).getApplied();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CHOICES)
+	public long replayArray() {
+		return menu.replay(choices, true).getApplied();
+	}
+}
@@ -0,0 +1,75 @@
+package com.github.HotPocketAdventure.util.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.HotPocketAdventure.util.Menu;
+import com.github.HotPocketAdventure.util.StringPool;
+
+/**
+ * Measures loading and saving menus as JSON files, with and without the shared {@link StringPool}.
+ * @author Michael Bradley
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+	@Param({"10", "1000", "100000"})
+	public int numOptions;
+
+	@Param({"false", "true"})
+	public boolean pool;
+
+	private Menu menu;
+	private File loadFile;
+	private File saveFile;
+
+	@Setup
+	public void setup() throws IOException {
+		if (pool) {
+			StringPool.enable();
+		}
+		menu = Menus.generate(numOptions);
+
+		loadFile = File.createTempFile("menu-load", ".json");
+		saveFile = File.createTempFile("menu-save", ".json");
+		Menu.saveToFile(loadFile.getPath(), menu);
+	}
+
+	@TearDown
+	public void tearDown() {
+		loadFile.delete();
+		saveFile.delete();
+		StringPool.disable();
+	}
+
+	@Benchmark
+	public Menu loadFromFile() throws IOException {
+		return Menu.loadFromFile(loadFile.getPath());
+	}
+
+	@Benchmark
+	public File saveToFile() throws IOException {
+		Menu.saveToFile(saveFile.getPath(), menu);
+		return saveFile;
+	}
+}
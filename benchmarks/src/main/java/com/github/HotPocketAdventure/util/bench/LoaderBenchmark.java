@@ -0,0 +1,73 @@
+package com.github.HotPocketAdventure.util.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.HotPocketAdventure.util.LoadReport;
+import com.github.HotPocketAdventure.util.Menu;
+import com.github.HotPocketAdventure.util.MenuLoader;
+
+/**
+ * Measures loading a directory of JSON menus with {@link MenuLoader} on pools of different sizes.
+ * <br>A parallelism of 0 uses one worker per available processor.
+ * @author Michael Bradley
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoaderBenchmark {
+
+	private static final int FILES = 1000;
+
+	@Param({"1", "0"})
+	public int parallelism;
+
+	private Path directory;
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("menu-loader");
+		Menu menu = Menus.generate(100);
+
+		for (int i = 0; i < FILES; i++) {
+			Menu.saveToFile(directory.resolve("menu" + i + MenuLoader.JSON_EXTENSION).toString(), menu);
+		}
+
+		pool = new ForkJoinPool(parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		pool.shutdown();
+		for (int i = 0; i < FILES; i++) {
+			Files.delete(directory.resolve("menu" + i + MenuLoader.JSON_EXTENSION));
+		}
+		Files.delete(directory);
+	}
+
+	@Benchmark
+	public LoadReport loadDirectory() throws IOException {
+		return MenuLoader.loadDirectory(directory, pool);
+	}
+}
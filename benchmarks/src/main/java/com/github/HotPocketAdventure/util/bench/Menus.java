@@ -0,0 +1,47 @@
+package com.github.HotPocketAdventure.util.bench;
+
+import java.io.OutputStream;
+
+import com.github.HotPocketAdventure.util.Menu;
+
+/**
+ * Builds the menus and streams shared by the benchmarks.
+ * @author Michael Bradley
+ *
+ */
+final class Menus {
+
+	private Menus() {
+	}
+
+	/**
+	 * @param numOptions
+	 * @return an exitable, choice-tracking Menu where every other option has been chosen.
+	 */
+	static Menu generate(int numOptions) {
+		String[] options = new String[numOptions];
+
+		for (int i = 0; i < numOptions; i++) {
+			options[i] = "Catalog entry number " + (i + 1);
+		}
+
+		Menu menu = new Menu("Generated Menu", numOptions, options, true, 0, "Back", "Chosen", "Not chosen");
+		for (int i = 0; i < numOptions; i += 2) {
+			menu.setChosenAt(i, true);
+		}
+		return menu;
+	}
+
+	/**
+	 * An OutputStream that discards everything written to it.
+	 */
+	static final OutputStream NULL_OUTPUT = new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	};
+}
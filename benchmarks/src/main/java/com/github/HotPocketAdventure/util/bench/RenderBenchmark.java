@@ -0,0 +1,63 @@
+package com.github.HotPocketAdventure.util.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.HotPocketAdventure.util.Menu;
+
+/**
+ * Measures {@link Menu#toString(boolean)} with a warm cache, after invalidation and streamed through renderTo.
+ * @author Michael Bradley
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+	@Param({"10", "1000", "100000", "1000000"})
+	public int numOptions;
+
+	private Menu menu;
+	private StringBuilder sink;
+
+	@Setup
+	public void setup() {
+		menu = Menus.generate(numOptions);
+		sink = new StringBuilder();
+	}
+
+	@Benchmark
+	public String cached() {
+		return menu.toString(true);
+	}
+
+	@Benchmark
+	public String rebuild() {
+		menu.invalidateRender();
+		return menu.toString(true);
+	}
+
+	@Benchmark
+	public int renderTo() throws IOException {
+		menu.invalidateRender();
+		sink.setLength(0);
+		menu.renderTo(sink, true);
+		return sink.length();
+	}
+}
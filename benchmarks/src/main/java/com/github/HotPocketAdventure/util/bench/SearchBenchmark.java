@@ -0,0 +1,63 @@
+package com.github.HotPocketAdventure.util.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.HotPocketAdventure.util.MenuDefinition;
+import com.github.HotPocketAdventure.util.OptionIndex;
+
+/**
+ * Measures prefix, substring and misspelled searches of a built {@link OptionIndex}, against a linear scan of the options.
+ * @author Michael Bradley
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SearchBenchmark {
+
+	@Param({"1000", "1000000"})
+	public int numOptions;
+
+	@Param({"catalog entry number 4242", "number 77", "entyr nmuber 123"})
+	public String query;
+
+	private MenuDefinition definition;
+
+	@Setup
+	public void setup() {
+		definition = new MenuDefinition(Menus.generate(numOptions));
+		definition.getIndex();
+	}
+
+	@Benchmark
+	public int[] indexed() {
+		return definition.search(query, 20);
+	}
+
+	@Benchmark
+	public int scan() {
+		int found = 0;
+
+		for (int i = 0; i < definition.getNumOptions() && found < 20; i++) {
+			if (definition.getOptionAt(i).toLowerCase().contains(query)) {
+				found++;
+			}
+		}
+		return found;
+	}
+}
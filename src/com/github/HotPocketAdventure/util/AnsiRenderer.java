@@ -0,0 +1,90 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws menus on an ANSI terminal by rewriting only the lines that changed since the last frame.
+ * <br>- The first frame, and any frame with a different number of lines, clears the screen and is drawn in full.
+ * <br>- Otherwise each changed line is rewritten in place with cursor movement, so a flipped chosen text costs one line instead of the whole menu.
+ * <br>- The lines below the frame, where the prompt and the typed choices were echoed, are cleared every frame.
+ * <br>- Assumes the renderer owns the screen and the frame fits on it. Call {@link #invalidate() invalidate} after writing anything else to the terminal.
+ * <br>- Not thread safe. Each terminal should have its own renderer.
+ * @author Michael Bradley
+ *
+ */
+public class AnsiRenderer {
+
+	private static final String ESCAPE = "\u001B[";
+
+	private String[] lastFrame;
+
+	/**
+	 * Creates a renderer that draws its first frame in full.
+	 */
+	public AnsiRenderer() {
+		lastFrame = null;
+	}
+
+	/**
+	 * Draws a frame followed by one empty line, leaving the cursor on the line after it.
+	 * @param frame the menu text, lines separated by '\n'
+	 * @param out
+	 */
+	public void draw(CharSequence frame, PrintStream out) {
+		String[] lines = split(frame);
+		StringBuilder sb = new StringBuilder();
+
+		if (lastFrame == null || lastFrame.length != lines.length) {
+			sb.append(ESCAPE).append("2J").append(ESCAPE).append('H');
+			for (String line : lines) {
+				sb.append(line).append('\n');
+			}
+		} else {
+			for (int i = 0; i < lines.length; i++) {
+				if (!lines[i].equals(lastFrame[i])) {
+					moveTo(sb, i + 1).append(ESCAPE).append("2K").append(lines[i]);
+				}
+			}
+			moveTo(sb, lines.length + 1);
+		}
+
+		//Clears the empty line and everything below it, the last prompt and echoed input included
+		sb.append(ESCAPE).append('J').append('\n');
+
+		lastFrame = lines;
+		out.print(sb);
+		out.flush();
+	}
+
+	/**
+	 * Forgets the last frame so the next one is drawn in full.
+	 */
+	public void invalidate() {
+		lastFrame = null;
+	}
+
+	private static StringBuilder moveTo(StringBuilder sb, int row) {
+		return sb.append(ESCAPE).append(row).append(";1H");
+	}
+
+	/**
+	 * @return the lines of the frame, without a final empty line if the frame ends with '\n'.
+	 */
+	private static String[] split(CharSequence frame) {
+		List<String> ret = new ArrayList<>();
+		int start = 0;
+
+		for (int i = 0; i < frame.length(); i++) {
+			if (frame.charAt(i) == '\n') {
+				ret.add(frame.subSequence(start, i).toString());
+				start = i + 1;
+			}
+		}
+		if (start < frame.length()) {
+			ret.add(frame.subSequence(start, frame.length()).toString());
+		}
+		return ret.toArray(new String[ret.size()]);
+	}
+}
@@ -0,0 +1,93 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files atomically: content is written to a temporary file next to the target, forced to disk and moved over the target.
+ * <br>A failed write deletes the temporary file and leaves any existing target untouched.
+ * @author Michael Bradley
+ *
+ */
+final class AtomicFile {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Writes the content of a file.
+	 */
+	interface Content {
+		/**
+		 * @param out a buffered stream, flushed and closed by the caller
+		 * @throws IOException
+		 */
+		void writeTo(OutputStream out) throws IOException;
+	}
+
+	private AtomicFile() {
+	}
+
+	/**
+	 * @param target
+	 * @param content
+	 * @throws FileNotFoundException if the target's directory does not exist or can't be written to
+	 * @throws IOException if the file could not be written
+	 */
+	static void write(Path target, Content content) throws IOException {
+		Path temp = null;
+
+		try {
+			FileChannel channel = null;
+
+			//The temporary file is created like any other file, so the target keeps the usual permissions
+			while (channel == null) {
+				temp = target.resolveSibling(target.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+				try {
+					channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+				} catch (FileAlreadyExistsException e) {
+					continue;
+				} catch (NoSuchFileException | AccessDeniedException e) {
+					temp = null;
+					FileNotFoundException fnf = new FileNotFoundException(target + " (" + e.getMessage() + ")");
+					fnf.initCause(e);
+					throw fnf;
+				}
+			}
+
+			try {
+				OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+				content.writeTo(out);
+				out.flush();
+				channel.force(false);
+			} finally {
+				channel.close();
+			}
+
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			if (temp != null) {
+				try {
+					Files.deleteIfExists(temp);
+				} catch (IOException e) {
+					//Nothing more can be done, the target is untouched
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.github.HotPocketAdventure.util;
+
+/**
+ * The most recent choices of a {@link Menu}, kept in a fixed-size ring buffer of ints.
+ * <br>- Once full, each new choice overwrites the oldest one.
+ * <br>- Also records whether each choice set a chosen flag, so it can be {@link Menu#undo(int) undone}, and optionally when it was made.
+ * <br>- Entries are read by how far back they are, 0 being the most recent, so iterating allocates nothing.
+ * <br>- Not thread safe, like the Menu that records into it.
+ * @author Michael Bradley
+ *
+ */
+public class ChoiceHistory {
+
+	private final int[] choices;
+	private final boolean[] flipped;
+	private final long[] timestamps;
+
+	//The position the next choice is written to
+	private int head;
+	private int size;
+	private long recorded;
+
+	/**
+	 * Creates a history without timestamps.
+	 * @param capacity the number of choices kept
+	 */
+	public ChoiceHistory(int capacity) {
+		this(capacity, false);
+	}
+
+	/**
+	 * @param capacity the number of choices kept
+	 * @param timestamps whether to record the time of each choice
+	 */
+	public ChoiceHistory(int capacity, boolean timestamps) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity (" + capacity + ") must be greater than zero.");
+		}
+
+		choices = new int[capacity];
+		flipped = new boolean[capacity];
+		this.timestamps = timestamps ? new long[capacity] : null;
+
+		head = 0;
+		size = 0;
+		recorded = 0;
+	}
+
+	/**
+	 * Adds a choice as the most recent, overwriting the oldest if the history is full.
+	 * @param choice
+	 * @param flip whether the choice set a chosen flag that was clear before
+	 */
+	public void record(int choice, boolean flip) {
+		choices[head] = choice;
+		flipped[head] = flip;
+		if (timestamps != null) {
+			timestamps[head] = System.currentTimeMillis();
+		}
+
+		head = head + 1 == choices.length ? 0 : head + 1;
+		if (size < choices.length) {
+			size++;
+		}
+		recorded++;
+	}
+
+	/**
+	 * @param back how far back the choice is, 0 being the most recent
+	 * @return the choice.
+	 */
+	public int getChoice(int back) {
+		return choices[position(back)];
+	}
+
+	/**
+	 * @param back how far back the choice is, 0 being the most recent
+	 * @return whether the choice set a chosen flag that was clear before.
+	 */
+	public boolean isFlipped(int back) {
+		return flipped[position(back)];
+	}
+
+	/**
+	 * @param back how far back the choice is, 0 being the most recent
+	 * @return the time the choice was made, in milliseconds since the epoch.
+	 * @throws IllegalStateException if this history does not record timestamps
+	 */
+	public long getTimestamp(int back) {
+		if (timestamps == null) {
+			throw new IllegalStateException("This history does not record timestamps.");
+		}
+		return timestamps[position(back)];
+	}
+
+	/**
+	 * @return whether the time of each choice is recorded.
+	 */
+	public boolean hasTimestamps() {
+		return timestamps != null;
+	}
+
+	/**
+	 * Forgets the most recent choices.
+	 * @param n
+	 * @return the number of choices forgotten, less than n if the history held fewer.
+	 */
+	public int removeRecent(int n) {
+		int removed = Math.max(0, Math.min(n, size));
+
+		head -= removed;
+		if (head < 0) {
+			head += choices.length;
+		}
+		size -= removed;
+		recorded -= removed;
+		return removed;
+	}
+
+	/**
+	 * Forgets every choice.
+	 */
+	public void clear() {
+		head = 0;
+		size = 0;
+		recorded = 0;
+	}
+
+	/**
+	 * @return the number of choices held.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of choices that can be held.
+	 */
+	public int capacity() {
+		return choices.length;
+	}
+
+	/**
+	 * @return the number of choices recorded since the history was created or cleared, including those overwritten, less those removed.
+	 */
+	public long getRecorded() {
+		return recorded;
+	}
+
+	private int position(int back) {
+		if (back < 0 || back >= size) {
+			throw new IndexOutOfBoundsException("The history holds " + size + " choices, " + back + " back is not one of them.");
+		}
+
+		int ret = head - 1 - back;
+		return ret < 0 ? ret + choices.length : ret;
+	}
+}
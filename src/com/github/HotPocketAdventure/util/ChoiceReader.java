@@ -0,0 +1,267 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads whitespace separated menu choices straight from the bytes of an {@link InputStream}.
+ * <br>- Tokens are parsed as base 10 integers with an optional leading sign.
+ * <br>- Tokens that are not integers, or do not fit in an int, are reported as {@link #INVALID} instead of throwing.
+ * <br>- Tokens and lines are kept to at most {@link #MAX_TOKEN_LENGTH} bytes, so input without whitespace can't grow the reader without bound.
+ * <br>- No Strings or exceptions are created while reading, only the reader's own buffers. {@link #lineFromToken()} is the one exception.
+ * <br>- Not thread safe. Each input source should have its own reader.
+ * @author Michael Bradley
+ *
+ */
+public class ChoiceReader implements Closeable {
+
+	//Token types returned by next()
+	public static final int INTEGER = 0;
+	public static final int INVALID = 1;
+	public static final int END = 2;
+
+	//The longest token or line kept, in bytes. An int needs at most 11, the rest is room for search lines
+	public static final int MAX_TOKEN_LENGTH = 1024;
+
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	private final InputStream in;
+	private final byte[] buffer;
+	private int position;
+	private int limit;
+
+	private byte[] token;
+	private int tokenLength;
+	private int delimiter;
+	private int value;
+	private IOException lastException;
+
+	/**
+	 * @param in the stream to read choices from
+	 */
+	public ChoiceReader(InputStream in) {
+		this(in, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * A small buffer keeps idle readers cheap when many are open at once, a large one reads fewer times from the stream.
+	 * @param in the stream to read choices from
+	 * @param bufferSize the number of bytes read from the stream at a time
+	 */
+	public ChoiceReader(InputStream in, int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("The buffer size (" + bufferSize + ") must be greater than zero.");
+		}
+
+		this.in = in;
+		buffer = new byte[bufferSize];
+		position = 0;
+		limit = 0;
+
+		token = new byte[16];
+		tokenLength = 0;
+		delimiter = -1;
+		value = 0;
+	}
+
+	/**
+	 * Reads the next whitespace separated token.
+	 * <br>Blocks until a whole token has been read or the end of the stream is reached.
+	 * <br>A stream that can't be read is treated as ended, the cause is available from {@link #ioException()}.
+	 * <br>A token longer than {@link #MAX_TOKEN_LENGTH} bytes is read up to the next whitespace, discarded and reported as {@link #INVALID}.
+	 * @return {@link #INTEGER} if the token was an integer, {@link #INVALID} if it was not or {@link #END} if the stream has no more tokens.
+	 */
+	public int next() {
+		tokenLength = 0;
+
+		//Skip leading whitespace
+		int b;
+		do {
+			b = read();
+			if (b < 0) {
+				return END;
+			}
+		} while (isWhitespace(b));
+
+		boolean overflow = false;
+		do {
+			overflow |= !append(b);
+			b = read();
+		} while (b >= 0 && !isWhitespace(b));
+
+		delimiter = b;
+		if (overflow) {
+			tokenLength = 0;
+			return INVALID;
+		}
+		return parseToken() ? INTEGER : INVALID;
+	}
+
+	/**
+	 * @return the value of the last token if {@link #next()} returned {@link #INTEGER}.
+	 */
+	public int getValue() {
+		return value;
+	}
+
+	/**
+	 * Compares the last token with a word, ignoring the case of ASCII letters, without creating a String.
+	 * @param word
+	 * @return whether the last token read is the word.
+	 */
+	public boolean isWord(String word) {
+		if (word.length() != tokenLength) {
+			return false;
+		}
+
+		for (int i = 0; i < tokenLength; i++) {
+			int b = token[i];
+			int c = word.charAt(i);
+			if (b != c && toLowerAscii(b) != toLowerAscii(c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the last token read was the last on its line, so reading another would wait for a new line of input.
+	 */
+	public boolean isEndOfLine() {
+		return delimiter < 0 || delimiter == '\n' || delimiter == '\r';
+	}
+
+	/**
+	 * @param c
+	 * @return whether the last token read starts with the ASCII character.
+	 */
+	public boolean startsWith(char c) {
+		return tokenLength > 0 && token[0] == c;
+	}
+
+	/**
+	 * Reads the rest of the line the last token ended on, for input that is a line of text rather than a choice.
+	 * <br>The line is decoded as UTF-8 and the line terminator is dropped.
+	 * Bytes past {@link #MAX_TOKEN_LENGTH} are read up to the end of the line and discarded.
+	 * @return the last token and the rest of its line.
+	 */
+	public String lineFromToken() {
+		if (delimiter >= 0 && delimiter != '\n') {
+			append(delimiter);
+
+			int b;
+			while ((b = read()) >= 0 && b != '\n') {
+				append(b);
+			}
+		}
+		delimiter = '\n';
+
+		int length = tokenLength;
+		if (length > 0 && token[length - 1] == '\r') {
+			length--;
+		}
+		return new String(token, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the IOException last thrown by the underlying stream or null if none has been thrown.
+	 */
+	public IOException ioException() {
+		return lastException;
+	}
+
+	/**
+	 * Closes the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Parses the token bytes as a base 10 int, accumulating negatively so Integer.MIN_VALUE fits.
+	 * @return whether the token was a valid int.
+	 */
+	private boolean parseToken() {
+		int i = 0;
+		boolean negative = false;
+
+		if (token[0] == '-' || token[0] == '+') {
+			negative = token[0] == '-';
+			i++;
+		}
+
+		if (i == tokenLength) {
+			return false;
+		}
+
+		int limitValue = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+		int multiplyMin = limitValue / 10;
+		int result = 0;
+
+		for (; i < tokenLength; i++) {
+			int digit = token[i] - '0';
+			if (digit < 0 || digit > 9 || result < multiplyMin) {
+				return false;
+			}
+			result *= 10;
+			if (result < limitValue + digit) {
+				return false;
+			}
+			result -= digit;
+		}
+
+		value = negative ? result : -result;
+		return true;
+	}
+
+	/**
+	 * @return the next byte of the stream or -1 at the end of the stream.
+	 */
+	private int read() {
+		if (position == limit) {
+			try {
+				int n;
+				do {
+					n = in.read(buffer, 0, buffer.length);
+				} while (n == 0);
+
+				if (n < 0) {
+					return -1;
+				}
+				position = 0;
+				limit = n;
+			} catch (IOException e) {
+				lastException = e;
+				return -1;
+			}
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	/**
+	 * @return whether the byte was kept, false once the token holds {@link #MAX_TOKEN_LENGTH} bytes.
+	 */
+	private boolean append(int b) {
+		if (tokenLength == token.length) {
+			if (tokenLength >= MAX_TOKEN_LENGTH) {
+				return false;
+			}
+			byte[] grown = new byte[Math.min(token.length * 2, MAX_TOKEN_LENGTH)];
+			System.arraycopy(token, 0, grown, 0, tokenLength);
+			token = grown;
+		}
+		token[tokenLength++] = (byte) b;
+		return true;
+	}
+
+	private static int toLowerAscii(int c) {
+		return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+	}
+
+	private static boolean isWhitespace(int b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+	}
+}
@@ -0,0 +1,190 @@
+package com.github.HotPocketAdventure.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of the choices made across every {@link MenuSession session} of a {@link MenuDefinition}.
+ * <br>- Each option has its own {@link LongAdder}, created the first time the option is chosen, so menus with many rarely chosen options stay small.
+ * <br>- Counting takes no locks and spreads contended updates over several cells, so any number of sessions can count at once.
+ * <br>- Reading a count sums its cells. Counts read while sessions are choosing are not an atomic snapshot of every option.
+ * @author Michael Bradley
+ *
+ */
+public class ChoiceStatistics {
+
+	private final AtomicReferenceArray<LongAdder> options;
+	private final LongAdder exits;
+	private final LongAdder invalid;
+
+	/**
+	 * @param numOptions
+	 */
+	public ChoiceStatistics(int numOptions) {
+		options = new AtomicReferenceArray<>(numOptions);
+		exits = new LongAdder();
+		invalid = new LongAdder();
+	}
+
+	/**
+	 * Counts a choice of an option.
+	 * @param number the displayed option number
+	 */
+	public void recordChoice(int number) {
+		int index = number - 1;
+		LongAdder counter = options.get(index);
+
+		if (counter == null) {
+			LongAdder created = new LongAdder();
+			counter = options.compareAndSet(index, null, created) ? created : options.get(index);
+		}
+		counter.increment();
+	}
+
+	/**
+	 * Counts a choice of the exit option.
+	 */
+	public void recordExit() {
+		exits.increment();
+	}
+
+	/**
+	 * Counts an input that was not a valid choice.
+	 */
+	public void recordInvalid() {
+		invalid.increment();
+	}
+
+	/**
+	 * @param number the displayed option number
+	 * @return the number of times the option has been chosen.
+	 */
+	public long getCount(int number) {
+		LongAdder counter = options.get(number - 1);
+		return counter == null ? 0 : counter.sum();
+	}
+
+	/**
+	 * @return the number of times the exit option has been chosen.
+	 */
+	public long getExits() {
+		return exits.sum();
+	}
+
+	/**
+	 * @return the number of inputs that were not valid choices.
+	 */
+	public long getInvalid() {
+		return invalid.sum();
+	}
+
+	/**
+	 * @return the number of options counted.
+	 */
+	public int getNumOptions() {
+		return options.length();
+	}
+
+	/**
+	 * Note: each index will be one less than the displayed option number.
+	 * @return the count of every option.
+	 */
+	public long[] snapshot() {
+		long[] ret = new long[options.length()];
+
+		for (int i = 0; i < ret.length; i++) {
+			LongAdder counter = options.get(i);
+			if (counter != null) {
+				ret[i] = counter.sum();
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Finds the most chosen options with a heap of k entries, without sorting every option.
+	 * @param k
+	 * @return the numbers of at most k options that have been chosen, most chosen first, ties by option number.
+	 */
+	public int[] topK(int k) {
+		if (k < 0) {
+			throw new IllegalArgumentException("k (" + k + ") is less than zero.");
+		}
+
+		int[] heap = new int[Math.min(k, options.length())];
+		long[] heapCounts = new long[heap.length];
+		int size = 0;
+
+		//A min heap on (count, then larger option number), so its root is the entry to drop first
+		for (int i = 0; i < options.length() && heap.length > 0; i++) {
+			LongAdder counter = options.get(i);
+			long count = counter == null ? 0 : counter.sum();
+			if (count == 0) {
+				continue;
+			}
+
+			if (size < heap.length) {
+				heap[size] = i;
+				heapCounts[size] = count;
+				siftUp(heap, heapCounts, size++);
+			} else if (count > heapCounts[0]) {
+				heap[0] = i;
+				heapCounts[0] = count;
+				siftDown(heap, heapCounts, size);
+			}
+		}
+
+		int[] ret = new int[size];
+		while (size > 0) {
+			ret[--size] = heap[0] + 1;
+			heap[0] = heap[size];
+			heapCounts[0] = heapCounts[size];
+			siftDown(heap, heapCounts, size);
+		}
+		return ret;
+	}
+
+	private static boolean less(int[] heap, long[] counts, int a, int b) {
+		return counts[a] < counts[b] || (counts[a] == counts[b] && heap[a] > heap[b]);
+	}
+
+	private static void siftUp(int[] heap, long[] counts, int at) {
+		while (at > 0) {
+			int parent = (at - 1) >>> 1;
+			if (!less(heap, counts, at, parent)) {
+				return;
+			}
+			swap(heap, counts, at, parent);
+			at = parent;
+		}
+	}
+
+	private static void siftDown(int[] heap, long[] counts, int size) {
+		int at = 0;
+
+		while (true) {
+			int child = 2 * at + 1;
+			if (child >= size) {
+				return;
+			}
+			if (child + 1 < size && less(heap, counts, child + 1, child)) {
+				child++;
+			}
+			if (!less(heap, counts, child, at)) {
+				return;
+			}
+			swap(heap, counts, at, child);
+			at = child;
+		}
+	}
+
+	private static void swap(int[] heap, long[] counts, int a, int b) {
+		int option = heap[a];
+		heap[a] = heap[b];
+		heap[b] = option;
+
+		long count = counts[a];
+		counts[a] = counts[b];
+		counts[b] = count;
+	}
+}
@@ -0,0 +1,353 @@
+package com.github.HotPocketAdventure.util;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size set of choice tracking flags packed into 64-bit words.
+ * <br>- Keeps a running count of the flags that are set, so counting and completeness checks never scan the words.
+ * <br>- Bulk operations work on whole words at a time.
+ * <br>- Indices are zero based, one less than the displayed option number.
+ * @author Michael Bradley
+ *
+ */
+public class ChosenSet {
+
+	private static final int WORD_SHIFT = 6;
+	private static final long ALL = -1L;
+
+	private final int size;
+	private final long[] words;
+	private int count;
+
+	/**
+	 * Creates a set of the given size with every flag cleared.
+	 * @param size
+	 */
+	public ChosenSet(int size) {
+		if (size < 0) {
+			throw new NegativeArraySizeException(Integer.toString(size));
+		}
+
+		this.size = size;
+		words = new long[wordsFor(size)];
+		count = 0;
+	}
+
+	/**
+	 * Creates a set with the same size and flags as the passed array.
+	 * @param flags
+	 */
+	public ChosenSet(boolean[] flags) {
+		this(flags.length);
+
+		for (int i = 0; i < flags.length; i++) {
+			if (flags[i]) {
+				words[i >>> WORD_SHIFT] |= 1L << i;
+				count++;
+			}
+		}
+	}
+
+	/**
+	 * Copies the size and flags of another set.
+	 * @param other
+	 */
+	public ChosenSet(ChosenSet other) {
+		size = other.size;
+		words = other.words.clone();
+		count = other.count;
+	}
+
+	/**
+	 * Takes ownership of packed words, where bit i of word i / 64 is the flag at index i. Bits above size are ignored.
+	 * @param size
+	 * @param words
+	 */
+	ChosenSet(int size, long[] words) {
+		if (words.length != wordsFor(size)) {
+			throw new IllegalArgumentException("A set of size " + size + " needs " + wordsFor(size) + " words, not " + words.length + ".");
+		}
+
+		this.size = size;
+		this.words = words;
+		trimLastWord();
+
+		int c = 0;
+		for (long word : words) {
+			c += Long.bitCount(word);
+		}
+		count = c;
+	}
+
+	/**
+	 * @return the number of flags in this set.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index
+	 * @return whether the flag at the specified index is set.
+	 */
+	public boolean get(int index) {
+		checkIndex(index);
+		return (words[index >>> WORD_SHIFT] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Sets or clears the flag at the specified index.
+	 * @param index
+	 * @param value
+	 * @return whether the flag changed.
+	 */
+	public boolean set(int index, boolean value) {
+		checkIndex(index);
+
+		int w = index >>> WORD_SHIFT;
+		long bit = 1L << index;
+		boolean was = (words[w] & bit) != 0;
+
+		if (was == value) {
+			return false;
+		}
+
+		if (value) {
+			words[w] |= bit;
+			count++;
+		} else {
+			words[w] &= ~bit;
+			count--;
+		}
+		return true;
+	}
+
+	/**
+	 * Sets or clears every flag, one word at a time.
+	 * @param value
+	 * @return whether any flag changed.
+	 */
+	public boolean setAll(boolean value) {
+		int target = value ? size : 0;
+
+		if (count == target) {
+			return false;
+		}
+
+		if (value) {
+			Arrays.fill(words, ALL);
+			trimLastWord();
+		} else {
+			Arrays.fill(words, 0L);
+		}
+
+		count = target;
+		return true;
+	}
+
+	/**
+	 * Sets or clears the flags in the range [from, to), one word at a time.
+	 * @param from
+	 * @param to
+	 * @param value
+	 * @return the number of flags that changed.
+	 */
+	public int setRange(int from, int to, boolean value) {
+		if (from < 0 || to > size || from > to) {
+			throw new ArrayIndexOutOfBoundsException("The range [" + from + ", " + to + ") is not within a set of size " + size + ".");
+		}
+		if (from == to) {
+			return 0;
+		}
+
+		int first = from >>> WORD_SHIFT;
+		int last = (to - 1) >>> WORD_SHIFT;
+		int before = 0;
+		int after = 0;
+
+		for (int w = first; w <= last; w++) {
+			//Shifts only use the low 6 bits, so these are the masks of the range within each word
+			long mask = ALL;
+			if (w == first) {
+				mask &= ALL << from;
+			}
+			if (w == last) {
+				mask &= ALL >>> -to;
+			}
+
+			before += Long.bitCount(words[w]);
+			words[w] = value ? words[w] | mask : words[w] & ~mask;
+			after += Long.bitCount(words[w]);
+		}
+
+		count += after - before;
+		return Math.abs(after - before);
+	}
+
+	/**
+	 * Sets every flag that is set in another set of the same size, one word at a time.
+	 * @param other
+	 * @return the number of flags that changed.
+	 */
+	public int or(ChosenSet other) {
+		if (other.size != size) {
+			throw new IllegalArgumentException("The sets have different sizes (" + size + " and " + other.size + ").");
+		}
+
+		int added = 0;
+		for (int w = 0; w < words.length; w++) {
+			long word = words[w] | other.words[w];
+			added += Long.bitCount(word ^ words[w]);
+			words[w] = word;
+		}
+
+		count += added;
+		return added;
+	}
+
+	/**
+	 * Checks one word at a time whether {@link #or(ChosenSet) or} would change this set, without changing it.
+	 * @param other
+	 * @return whether every flag set in the other set is also set in this one.
+	 */
+	public boolean containsAll(ChosenSet other) {
+		if (other.size != size) {
+			throw new IllegalArgumentException("The sets have different sizes (" + size + " and " + other.size + ").");
+		}
+
+		for (int w = 0; w < words.length; w++) {
+			if ((other.words[w] & ~words[w]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the next set flag without creating anything, for iterating over the set flags.
+	 * @param from the index to start looking at
+	 * @return the index of the first set flag at or after from, or -1 if there is none.
+	 */
+	public int nextSet(int from) {
+		if (from < 0) {
+			throw new ArrayIndexOutOfBoundsException(from);
+		}
+		if (from >= size) {
+			return -1;
+		}
+
+		int w = from >>> WORD_SHIFT;
+		long word = words[w] & (ALL << from);
+
+		while (word == 0) {
+			if (++w == words.length) {
+				return -1;
+			}
+			word = words[w];
+		}
+		return (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * @return the indices of the set flags in ascending order.
+	 */
+	public int[] toIndices() {
+		int[] ret = new int[count];
+		int n = 0;
+
+		for (int w = 0; w < words.length; w++) {
+			long word = words[w];
+			while (word != 0) {
+				ret[n++] = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * @return the number of flags that are set.
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * @return whether every flag is set.
+	 */
+	public boolean isComplete() {
+		return count == size;
+	}
+
+	/**
+	 * @return the flags as a new array of booleans.
+	 */
+	public boolean[] toArray() {
+		boolean[] ret = new boolean[size];
+
+		for (int w = 0; w < words.length; w++) {
+			long word = words[w];
+			while (word != 0) {
+				int bit = Long.numberOfTrailingZeros(word);
+				ret[(w << WORD_SHIFT) + bit] = true;
+				word &= word - 1;
+			}
+		}
+
+		return ret;
+	}
+
+	/**
+	 * @return the number of 64-bit words the flags are packed into.
+	 */
+	int wordCount() {
+		return words.length;
+	}
+
+	/**
+	 * @param index
+	 * @return the packed word at the index, where bit i of word i / 64 is the flag at index i.
+	 */
+	long getWord(int index) {
+		return words[index];
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ChosenSet)) {
+			return false;
+		}
+
+		ChosenSet other = (ChosenSet) obj;
+		return size == other.size && count == other.count && Arrays.equals(words, other.words);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * size + Arrays.hashCode(words);
+	}
+
+	/**
+	 * Clears the unused bits above size in the last word so whole-word operations can't count them.
+	 */
+	private void trimLastWord() {
+		int used = size & 63;
+
+		if (used != 0) {
+			words[words.length - 1] &= ALL >>> (64 - used);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+	}
+
+	static int wordsFor(int size) {
+		return (size + 63) >>> WORD_SHIFT;
+	}
+}
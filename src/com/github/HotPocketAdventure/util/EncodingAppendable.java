@@ -0,0 +1,103 @@
+package com.github.HotPocketAdventure.util;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * An {@link Appendable} that encodes everything appended to it straight into a {@link ByteBuffer}.
+ * <br>- Characters are staged in one reused CharBuffer and encoded whenever it fills, so appending allocates nothing.
+ * <br>- A high surrogate at the end of one append is kept until the next, so a pair split across appends is still encoded as one character.
+ * <br>- Unmappable and malformed characters are replaced with the charset's replacement bytes.
+ * <br>- {@link #finish() finish} must be called once everything has been appended.
+ * @author Michael Bradley
+ *
+ */
+class EncodingAppendable implements Appendable {
+
+	private static final int CHUNK = 512;
+
+	private final ByteBuffer out;
+	private final CharsetEncoder encoder;
+
+	//In write mode between appends, holding the characters not encoded yet
+	private final CharBuffer chars;
+
+	/**
+	 * @param out the buffer to encode into, starting at its current position
+	 * @param charset
+	 */
+	EncodingAppendable(ByteBuffer out, Charset charset) {
+		this.out = out;
+		encoder = charset.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		chars = CharBuffer.allocate(CHUNK);
+	}
+
+	@Override
+	public Appendable append(CharSequence csq) {
+		CharSequence text = csq == null ? "null" : csq;
+		return append(text, 0, text.length());
+	}
+
+	@Override
+	public Appendable append(CharSequence csq, int start, int end) {
+		CharSequence text = csq == null ? "null" : csq;
+
+		while (start < end) {
+			if (!chars.hasRemaining()) {
+				encode(false);
+			}
+
+			int n = Math.min(end - start, chars.remaining());
+			if (text instanceof String) {
+				chars.put((String) text, start, start + n);
+			} else {
+				for (int i = start; i < start + n; i++) {
+					chars.put(text.charAt(i));
+				}
+			}
+			start += n;
+		}
+		return this;
+	}
+
+	@Override
+	public Appendable append(char c) {
+		if (!chars.hasRemaining()) {
+			encode(false);
+		}
+		chars.put(c);
+		return this;
+	}
+
+	/**
+	 * Encodes the characters still held, replacing a trailing unpaired surrogate, and flushes any state held by the encoder into the buffer.
+	 * @throws BufferOverflowException if the buffer has no room left
+	 */
+	void finish() {
+		encode(true);
+		check(encoder.flush(out));
+	}
+
+	/**
+	 * Encodes the staged characters. Unless this is the end of input, a trailing high surrogate stays staged for the next append.
+	 */
+	private void encode(boolean endOfInput) {
+		chars.flip();
+		CoderResult result = encoder.encode(chars, out, endOfInput);
+		chars.compact();
+		check(result);
+	}
+
+	private static void check(CoderResult result) {
+		if (result.isOverflow()) {
+			throw new BufferOverflowException();
+		}
+	}
+}
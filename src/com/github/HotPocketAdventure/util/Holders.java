@@ -0,0 +1,52 @@
+package com.github.HotPocketAdventure.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the {@link Menu}s holding one options array or chosen set, so that copies can share it until one of them writes.
+ * <br>- A Menu writes in place only while it is the sole holder, otherwise it takes a private copy and {@link #release() releases} this count.
+ * <br>- Copying only {@link #acquire() acquires}, so the Menu copied from is never written to.
+ * <br>- Copies that are garbage collected never release, so the count saturates at Integer.MAX_VALUE instead of wrapping, and from then on the array stays shared.
+ * @author Michael Bradley
+ *
+ */
+final class Holders {
+
+	private final AtomicInteger count;
+
+	/**
+	 * Counts one holder, the Menu that created the array.
+	 */
+	Holders() {
+		count = new AtomicInteger(1);
+	}
+
+	/**
+	 * Adds a holder.
+	 * @return this
+	 */
+	Holders acquire() {
+		int c;
+		do {
+			c = count.get();
+		} while (c != Integer.MAX_VALUE && !count.compareAndSet(c, c + 1));
+		return this;
+	}
+
+	/**
+	 * Removes a holder, unless the count has saturated.
+	 */
+	void release() {
+		int c;
+		do {
+			c = count.get();
+		} while (c != Integer.MAX_VALUE && !count.compareAndSet(c, c - 1));
+	}
+
+	/**
+	 * @return whether another Menu may still read the array.
+	 */
+	boolean isShared() {
+		return count.get() > 1;
+	}
+}
@@ -0,0 +1,138 @@
+package com.github.HotPocketAdventure.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size histogram of latencies in nanoseconds with log-linear buckets, in the style of HdrHistogram.
+ * <br>- Each power of two is split into 32 linear buckets, so any recorded value is reported within about 3% of itself, from nanoseconds to centuries.
+ * <br>- Recording is one array index computation and one atomic increment, with no locks or allocation, so any number of threads can record at once.
+ * <br>- Values read while threads are recording are not an atomic snapshot.
+ * @author Michael Bradley
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	//The bucket of Long.MAX_VALUE is the last one
+	private static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts;
+	private final LongAdder total;
+	private final AtomicLong max;
+
+	/**
+	 * Creates an empty histogram.
+	 */
+	public LatencyHistogram() {
+		counts = new AtomicLongArray(BUCKETS);
+		total = new LongAdder();
+		max = new AtomicLong();
+	}
+
+	/**
+	 * Records one latency. Negative values are recorded as 0.
+	 * @param nanos
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+
+		counts.incrementAndGet(index(value));
+		total.add(value);
+
+		long m;
+		while (value > (m = max.get()) && !max.compareAndSet(m, value)) {
+			//Retry until this value is recorded or a larger one is
+		}
+	}
+
+	/**
+	 * @return the number of latencies recorded.
+	 */
+	public long getCount() {
+		long ret = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			ret += counts.get(i);
+		}
+		return ret;
+	}
+
+	/**
+	 * @return the largest latency recorded, exactly.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @return the mean of the latencies recorded, exactly, or 0 if none have been.
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) total.sum() / count;
+	}
+
+	/**
+	 * @param percentile in [0, 100]
+	 * @return the latency at or below which the percentile of recorded latencies fall, or 0 if none have been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("The percentile (" + percentile + ") is not in [0, 100].");
+		}
+
+		long count = getCount();
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKETS && count > 0; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(highestValue(i), getMax());
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Clears every count. Latencies recorded while resetting may or may not be kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		total.reset();
+		max.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "count " + getCount() + ", mean " + (long) getMean() + "ns, p50 " + getValueAtPercentile(50) + "ns, p99 " + getValueAtPercentile(99) + "ns, max " + getMax() + "ns";
+	}
+
+	/**
+	 * Values below 64 have a bucket each. Above that, the top 6 bits of a value pick the bucket within its power of two.
+	 * @return the bucket of a non-negative value.
+	 */
+	private static int index(long value) {
+		int shift = Math.max(0, 63 - SUB_BUCKET_BITS - Long.numberOfLeadingZeros(value));
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * @return the largest value recorded in a bucket.
+	 */
+	private static long highestValue(int index) {
+		if (index < 2 * SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long mantissa = index - ((long) shift << SUB_BUCKET_BITS);
+		return ((mantissa + 1) << shift) - 1;
+	}
+}
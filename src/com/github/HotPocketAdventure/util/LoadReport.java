@@ -0,0 +1,61 @@
+package com.github.HotPocketAdventure.util;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The result of {@link MenuLoader#loadDirectory(Path) loading a directory} of menus.
+ * <br>Every menu file found is either loaded or failed, failed files are kept with the exception that stopped them.
+ * @author Michael Bradley
+ *
+ */
+public final class LoadReport {
+
+	private final Map<Path, Menu> menus;
+	private final Map<Path, Exception> errors;
+
+	LoadReport(Map<Path, Menu> menus, Map<Path, Exception> errors) {
+		this.menus = Collections.unmodifiableMap(menus);
+		this.errors = Collections.unmodifiableMap(errors);
+	}
+
+	/**
+	 * @return the validated menus loaded, by path.
+	 */
+	public Map<Path, Menu> getMenus() {
+		return menus;
+	}
+
+	/**
+	 * @return the exception of each file that could not be loaded or broke the menu rules, by path.
+	 */
+	public Map<Path, Exception> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return whether every menu file found was loaded.
+	 */
+	public boolean isComplete() {
+		return errors.isEmpty();
+	}
+
+	/**
+	 * @return the number of menu files found.
+	 */
+	public int getTotal() {
+		return menus.size() + errors.size();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder ret = new StringBuilder();
+		ret.append("loaded ").append(menus.size()).append(", failed ").append(errors.size());
+
+		for (Map.Entry<Path, Exception> error : errors.entrySet()) {
+			ret.append('\n').append(error.getKey()).append(": ").append(error.getValue().getMessage());
+		}
+		return ret.toString();
+	}
+}
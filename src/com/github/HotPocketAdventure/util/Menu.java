@@ -2,26 +2,34 @@ package com.github.HotPocketAdventure.util;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.util.InputMismatchException;
-import java.util.Scanner;
-
-import javax.json.Json;
-import javax.json.JsonArray;
-import javax.json.JsonArrayBuilder;
-import javax.json.JsonObject;
-import javax.json.JsonObjectBuilder;
-import javax.json.JsonReader;
-import javax.json.JsonValue;
-import javax.json.JsonWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import javax.json.JsonException;
 
 import com.github.HotPocketAdventure.util.exceptions.InvalidMemberException;
 
 /**
  * A basic text menu utility that uses the standard input/output for displaying and retrieving the user's choices.
+ * <br>- Each menu can be given its own {@link MenuConsole console} to read from and write to instead.
  * <br>- The menu can keep track of which menu options have and have not yet been chosen.  
  * <br>- All data members must have values that follow the rules specified by the {@link #validateMembers() validateMembers} method.
  * <br>- All constructors validate given values. If creating a degenerate Menu is necessary, build it using mutators.
+ * <br>- Can record its choices in a {@link ChoiceHistory}, so they can be looked back on and undone.
+ * <br>- Options can have {@link OptionHandler handlers} that are run straight after they are chosen, on the caller's thread or asynchronously on an executor.
+ * <br>- The rendered text is cached until a mutator changes something it displays. Subclasses that write to the data members directly must call {@link #invalidateRender() invalidateRender}.
  * @author Michael Bradley
  *
  */
@@ -31,7 +39,7 @@ public class Menu {
 	public static final String[] ON_OFF = {"On", "Off"};
 	public static final String[] YES_NO = {"Yes", "No"};
 
-	protected static Scanner input = new Scanner(System.in);
+	protected MenuConsole console = MenuConsole.standard();
 
 	protected int choice;
 	protected int lastChoice;
@@ -41,14 +49,38 @@ public class Menu {
 
 	protected int numOptions;
 	protected String[] options;
+	//The Menus holding options, which must be copied before being written while another holds them
+	private Holders optionsHolders = new Holders();
+	//Whether getOptions has handed out options, so the caller may still write to it and copies must not share it
+	private boolean optionsExposed;
 
 	protected String title;
 	protected String exitText;
 
-	protected boolean[] chosen;
+	protected ChosenSet chosen;
+	//The Menus holding chosen, which must be copied before being written while another holds it
+	private Holders chosenHolders = new Holders();
 	protected String chosenText;
 	protected String unchosenText;
 
+	//Render cache, null when the text must be rebuilt
+	protected String renderedPlain;
+	protected String renderedChosen;
+
+	//Option handlers indexed like options, null until the first is set
+	protected OptionHandler[] handlers;
+	protected boolean[] asyncHandlers;
+	protected OptionHandler exitHandler;
+	protected boolean exitAsync;
+	protected Executor executor;
+	protected CompletableFuture<Void> handled;
+
+	//The options of the most recent multi-select, null until the first
+	protected ChosenSet selected;
+
+	//Records every choice when set
+	protected ChoiceHistory history;
+
 	/**
 	 * Default Constructor that demonstrates a menu.
 	 * <br>Useful for creating a menu that will have its properties changes individually. 
@@ -97,8 +129,8 @@ public class Menu {
 		setExitText(exitText);
 
 		initChosen();
-		this.chosenText = chosenText;
-		this.unchosenText = unchosenText;
+		this.chosenText = StringPool.canonical(chosenText);
+		this.unchosenText = StringPool.canonical(unchosenText);
 
 		validateMembers();
 	}
@@ -124,11 +156,11 @@ public class Menu {
 		setOptions(options);
 
 		setTitle(title);
-		this.exitText = exitText;
+		this.exitText = StringPool.canonical(exitText);
 
 		initChosen();
-		this.chosenText = chosenText;
-		this.unchosenText = unchosenText;
+		this.chosenText = StringPool.canonical(chosenText);
+		this.unchosenText = StringPool.canonical(unchosenText);
 
 		validateMembers();
 	}
@@ -219,15 +251,8 @@ public class Menu {
 		validateMembers();
 	}
 
-
-	@Override
-	protected void finalize() throws Throwable {
-		super.finalize();
-		input.close();
-	}
-
 	/**
-	 * Outputs the menu options to the standard output with no (un)chosen texts
+	 * Outputs the menu options to the console's output with no (un)chosen texts
 	 * @return a reference to this {@link Menu} object
 	 */
 	public Menu display() {
@@ -235,17 +260,24 @@ public class Menu {
 	}
 
 	/**
-	 * Outputs the menu options to the standard output
+	 * Outputs the menu options to the console's output
 	 * <br>If showChosen is true, adds the (un)chosen texts to each choice.
+	 * <br>If the console has an {@link AnsiRenderer}, only the lines that changed since the last display are redrawn.
 	 * @return a reference to this {@link Menu} object
 	 */
 	public Menu display(boolean showChosen) {
-		System.out.println(toString(showChosen));
+		AnsiRenderer renderer = console.getRenderer();
+
+		if (renderer == null) {
+			console.getOutput().println(toString(showChosen));
+		} else {
+			renderer.draw(toString(showChosen), console.getOutput());
+		}
 		return this;
 	}
 
 	/**
-	 * Gets the menu choice from the standard input.
+	 * Gets the menu choice from the console's input.
 	 * <br>Prompts for input as long as the value is either out of range or invalid.
 	 * <br>Does not change the chosen booleans.
 	 * @return a reference to this Menu object
@@ -255,61 +287,461 @@ public class Menu {
 	}
 
 	/**
-	 * Gets the menu choice from the standard input.
+	 * Gets the menu choice from the console's input.
 	 * <br>Prompts for input as long as the value is either out of range or invalid.
 	 * <br>If changeChosen is true, the chosen boolean for that choice will be set to true. 
+	 * <br>Runs the choice's handler, if it has one, after the choice is made. The result of an async handler is available from {@link #getHandled() getHandled}.
 	 * @param changeChosen
 	 * @return a reference to this {@link Menu} object
+	 * @throws NoSuchElementException if the input ends before a valid choice is entered
 	 */
 	public Menu getInput(boolean changeChosen) {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginThinkTime();
+		int token;
 		int c = -1;
 
 		do {
-			System.out.print("Enter: ");
-			try {
-				c = input.nextInt();
-			} catch (InputMismatchException e) {
-				input.next();
+			console.prompt();
+			token = console.getReader().next();
+
+			if (token == ChoiceReader.END) {
+				throw new NoSuchElementException("The input ended before a valid choice was entered.");
+			} else if (token == ChoiceReader.INTEGER) {
+				c = console.getReader().getValue();
+			}
+		} while (token != ChoiceReader.INTEGER || !isValidOption(c));
+
+		if (metrics != null) {
+			metrics.recordThinkTime(start, event, c);
+		}
+		apply(c, changeChosen);
+		return this;
+	}
+
+	/**
+	 * Gets a multi-select line from the console's input, such as "1,3,5-9" or "all".
+	 * <br>Prompts for input as long as the line is empty or any item in it is invalid, see {@link #select(CharSequence, boolean) select}.
+	 * <br>A line holding only the exit option's number chooses the exit option, as getInput does.
+	 * @param changeChosen
+	 * @return a reference to this {@link Menu} object
+	 * @throws NoSuchElementException if the input ends before a valid selection is entered
+	 */
+	public Menu getMultiInput(boolean changeChosen) {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginThinkTime();
+		ChoiceReader reader = console.getReader();
+		boolean valid;
+
+		do {
+			console.prompt();
+			if (reader.next() == ChoiceReader.END) {
+				throw new NoSuchElementException("The input ended before a valid selection was entered.");
+			}
+			valid = applySelection(reader.lineFromToken(), changeChosen);
+		} while (!valid);
+
+		if (metrics != null) {
+			metrics.recordThinkTime(start, event, choice);
+		}
+		return this;
+	}
+
+	/**
+	 * Selects several options at once from text such as "1,3,5-9" or "all".
+	 * <br>Items are separated by commas or whitespace. Each is an option number, a range "a-b", "all" or "none".
+	 * Option numbers must be valid options other than the exit option.
+	 * <br>If changeChosen is true, every selected option's chosen flag is set in one bulk operation.
+	 * Text holding only the exit option's number chooses the exit option instead, recorded in the {@link #getHistory() history} and handled as if chosen from getInput.
+	 * <br>Does not run option handlers for selected options. The selection is available from {@link #getSelected() getSelected}.
+	 * @param text
+	 * @param changeChosen
+	 * @return a reference to this {@link Menu} object
+	 * @throws IllegalArgumentException if the text is empty or any item is not valid
+	 */
+	public Menu select(CharSequence text, boolean changeChosen) {
+		if (!applySelection(text, changeChosen)) {
+			throw new IllegalArgumentException("\"" + text + "\" is not a valid selection.");
+		}
+		return this;
+	}
+
+	/**
+	 * @return whether the text was a valid selection.
+	 */
+	private boolean applySelection(CharSequence text, boolean changeChosen) {
+		if (exitAllowed && text.toString().trim().equals(Integer.toString(exitOn))) {
+			selected = new ChosenSet(numOptions);
+			apply(exitOn, false);
+			return true;
+		}
+
+		ChosenSet selection = SelectionParser.parse(text, numOptions);
+		if (selection == null) {
+			return false;
+		}
+
+		selected = selection;
+		//A selection that sets nothing new must not copy chosen flags shared with a copy
+		if (changeChosen && !chosen.containsAll(selection)) {
+			writableChosen().or(selection);
+			invalidateChosenRender();
+		}
+		return true;
+	}
+
+	/**
+	 * @return the option numbers of the most recent multi-select in ascending order, empty if there has been none.
+	 */
+	public int[] getSelected() {
+		if (selected == null) {
+			return new int[0];
+		}
+
+		int[] ret = selected.toIndices();
+		for (int i = 0; i < ret.length; i++) {
+			ret[i]++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Note: each index will be one less than the displayed option number.
+	 * @return a copy of the most recent multi-select as a set, empty if there has been none.
+	 */
+	public ChosenSet getSelectedSet() {
+		return selected == null ? new ChosenSet(numOptions) : new ChosenSet(selected);
+	}
+
+	/**
+	 * Applies a sequence of choices without any console input or output, as if each had been entered into {@link #getInput(boolean) getInput}.
+	 * <br>Each valid choice updates the choice, last choice and, if changeChosen is true, the chosen flags, then runs its handler. Invalid choices are skipped.
+	 * <br>Replaying continues past the exit option.
+	 * @param choices
+	 * @param changeChosen
+	 * @return the number of choices applied, rejected and exited on.
+	 */
+	public ReplayResult replay(int[] choices, boolean changeChosen) {
+		return replay(choices, 0, choices.length, changeChosen);
+	}
+
+	/**
+	 * Applies the choices in the range [from, to) of the array, see {@link #replay(int[], boolean)}.
+	 * @param choices
+	 * @param from
+	 * @param to
+	 * @param changeChosen
+	 * @return the number of choices applied, rejected and exited on.
+	 */
+	public ReplayResult replay(int[] choices, int from, int to, boolean changeChosen) {
+		if (from < 0 || to > choices.length || from > to) {
+			throw new ArrayIndexOutOfBoundsException("The range [" + from + ", " + to + ") is not within an array of length " + choices.length + ".");
+		}
+
+		long rejected = 0;
+		long exited = 0;
+
+		for (int i = from; i < to; i++) {
+			int c = choices[i];
+
+			if (!isValidOption(c)) {
+				rejected++;
+			} else if (apply(c, changeChosen)) {
+				exited++;
+			}
+		}
+		return new ReplayResult(to - from - rejected, rejected, exited);
+	}
+
+	/**
+	 * Applies every choice left in the reader until it ends, see {@link #replay(int[], boolean)}. Tokens that are not integers are rejected.
+	 * <br>Nothing is prompted or written.
+	 * @param reader
+	 * @param changeChosen
+	 * @return the number of choices applied, rejected and exited on.
+	 */
+	public ReplayResult replay(ChoiceReader reader, boolean changeChosen) {
+		long applied = 0;
+		long rejected = 0;
+		long exited = 0;
+		int token;
+
+		while ((token = reader.next()) != ChoiceReader.END) {
+			if (token != ChoiceReader.INTEGER || !isValidOption(reader.getValue())) {
+				rejected++;
+				continue;
+			}
+
+			applied++;
+			if (apply(reader.getValue(), changeChosen)) {
+				exited++;
 			}
-		} while (!isValidOption(c));
+		}
+		return new ReplayResult(applied, rejected, exited);
+	}
 
+	/**
+	 * Makes a valid choice the way getInput does.
+	 * @return whether the choice was the exit option.
+	 */
+	private boolean apply(int c, boolean changeChosen) {
 		lastChoice = choice;
 		choice = c;
 
-		if (changeChosen && choice != exitOn) {
-			chosen[choice - 1] = true;
+		boolean exit = c == exitOn;
+		boolean flipped = changeChosen && !exit && !chosen.get(c - 1) && writableChosen().set(c - 1, true);
+		if (flipped) {
+			invalidateChosenRender();
+		}
+		if (history != null) {
+			history.record(c, flipped);
 		}
 
-		return this;
+		if (handlers != null || exitHandler != null) {
+			handled = dispatch(c);
+		}
+		return exit;
+	}
+
+	/**
+	 * Undoes the most recent choices recorded in the {@link ChoiceHistory history}.
+	 * <br>Clears the chosen flags those choices set and restores the choice and last choice from the choices before them,
+	 * or -1 where the history does not reach back far enough. Handlers are not undone.
+	 * @param n the number of choices to undo
+	 * @return the number of choices undone, less than n if the history held fewer.
+	 * @throws IllegalStateException if this Menu has no history
+	 */
+	public int undo(int n) {
+		if (history == null) {
+			throw new IllegalStateException("This menu does not record a history.");
+		}
+
+		int undone = Math.max(0, Math.min(n, history.size()));
+		for (int back = 0; back < undone; back++) {
+			int c = history.getChoice(back);
+			if (history.isFlipped(back) && c >= 1 && c <= numOptions && writableChosen().set(c - 1, false)) {
+				invalidateChosenRender();
+			}
+		}
+		history.removeRecent(undone);
+
+		choice = history.size() > 0 ? history.getChoice(0) : -1;
+		lastChoice = history.size() > 1 ? history.getChoice(1) : -1;
+		return undone;
+	}
+
+	/**
+	 * Runs the handler of a choice without changing the choice or chosen flags.
+	 * <br>A handler that is not async is run before this method returns and any exception it throws is thrown from here.
+	 * @param choice
+	 * @return a future completed when the handler finishes, already completed if the choice has no handler or it is not async.
+	 */
+	public CompletableFuture<Void> handle(int choice) {
+		CompletableFuture<Void> ret = dispatch(choice);
+		return ret == null ? CompletableFuture.<Void>completedFuture(null) : ret;
 	}
 
 	/**
+	 * Looks up the choice's handler by index and runs it.
+	 * @return the future of an async handler, null if the handler was run here or there is none.
+	 */
+	private CompletableFuture<Void> dispatch(final int choice) {
+		final OptionHandler handler;
+		boolean async;
+
+		if (exitAllowed && choice == exitOn) {
+			handler = exitHandler;
+			async = exitAsync;
+		} else if (handlers != null && choice >= 1 && choice <= handlers.length) {
+			handler = handlers[choice - 1];
+			async = asyncHandlers[choice - 1];
+		} else {
+			return null;
+		}
+
+		if (handler == null) {
+			return null;
+		}
+		if (!async) {
+			handler.optionChosen(this, choice);
+			return null;
+		}
+
+		return CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				handler.optionChosen(Menu.this, choice);
+			}
+		}, getExecutor());
+	}
+
+	/**
+	 * The rendered text is cached separately for each value of showChosen and only rebuilt after a mutator changes what it displays.
 	 * @param showChosen if true outputs choice tracking text and leaves them out otherwise.
 	 * @return The menu as a String, including all title, all options, choice tracking and exit option if applicable.
 	 */
 	public String toString(boolean showChosen) {
-		StringBuilder ret = new StringBuilder(title);
+		if (showChosen) {
+			if (renderedChosen == null) {
+				renderedChosen = render(true);
+			}
+			return renderedChosen;
+		}
 
-		//Add a line the length of the title underneath the title 
-		if (!title.equals("")) {
-			ret.append("\n" + new String(new char[title.length()]).replace('\0', '-') + "\n");
+		if (renderedPlain == null) {
+			renderedPlain = render(false);
 		}
+		return renderedPlain;
+	}
 
-		for (int i = 0; i < numOptions; i++) {
-			ret.append((i + 1) + ". " + options[i]);
-			if (showChosen) {
-				ret.append(" - " + (chosen[i] ? chosenText : unchosenText));
+	/**
+	 * Builds the menu text without consulting the render cache.
+	 * @param showChosen
+	 * @return The menu as a String
+	 */
+	private String render(boolean showChosen) {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginRender();
+		StringBuilder ret = new StringBuilder(title.length() * 2 + numOptions * 24 + 16);
+
+		try {
+			write(ret, showChosen);
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+
+		if (metrics != null) {
+			metrics.recordRender(start, event, numOptions);
+		}
+		return ret.toString();
+	}
+
+	/**
+	 * Writes the menu straight into the passed {@link Appendable} with no (un)chosen texts.
+	 * @param out
+	 * @return a reference to this {@link Menu} object
+	 * @throws IOException if the Appendable throws one
+	 */
+	public Menu renderTo(Appendable out) throws IOException {
+		return renderTo(out, false);
+	}
+
+	/**
+	 * Writes the menu straight into the passed {@link Appendable} without building an intermediate String.
+	 * <br>If the menu text is already cached, the cached text is appended instead.
+	 * <br>If showChosen is true, adds the (un)chosen texts to each choice.
+	 * @param out
+	 * @param showChosen
+	 * @return a reference to this {@link Menu} object
+	 * @throws IOException if the Appendable throws one
+	 */
+	public Menu renderTo(Appendable out, boolean showChosen) throws IOException {
+		String cached = showChosen ? renderedChosen : renderedPlain;
+
+		if (cached != null) {
+			out.append(cached);
+		} else {
+			MenuMetrics metrics = MenuMetrics.get();
+			long start = metrics == null ? 0 : System.nanoTime();
+			Object event = metrics == null ? null : metrics.beginRender();
+
+			write(out, showChosen);
+			if (metrics != null) {
+				metrics.recordRender(start, event, numOptions);
 			}
-			ret.append('\n');
 		}
+		return this;
+	}
+
+	/**
+	 * Writes the menu straight into the passed {@link Writer} with no (un)chosen texts. Does not flush the Writer.
+	 * @param out
+	 * @return a reference to this {@link Menu} object
+	 * @throws IOException
+	 */
+	public Menu renderTo(Writer out) throws IOException {
+		return renderTo(out, false);
+	}
 
-		if (exitAllowed) {
-			ret.append(exitOn + ". " + exitText + "\n");
+	/**
+	 * Writes the menu straight into the passed {@link Writer}. Does not flush the Writer.
+	 * <br>If showChosen is true, adds the (un)chosen texts to each choice.
+	 * @param out
+	 * @param showChosen
+	 * @return a reference to this {@link Menu} object
+	 * @throws IOException
+	 */
+	public Menu renderTo(Writer out, boolean showChosen) throws IOException {
+		return renderTo((Appendable) out, showChosen);
+	}
+
+	/**
+	 * Encodes the menu straight into the passed {@link ByteBuffer} with no (un)chosen texts.
+	 * @param out
+	 * @param charset
+	 * @return a reference to this {@link Menu} object
+	 * @throws BufferOverflowException if the menu does not fit in the remaining space of the buffer
+	 */
+	public Menu renderTo(ByteBuffer out, Charset charset) {
+		return renderTo(out, charset, false);
+	}
+
+	/**
+	 * Encodes the menu straight into the passed {@link ByteBuffer}, starting at its current position.
+	 * <br>If showChosen is true, adds the (un)chosen texts to each choice.
+	 * <br>Unmappable characters are replaced with the charset's replacement bytes.
+	 * @param out
+	 * @param charset
+	 * @param showChosen
+	 * @return a reference to this {@link Menu} object
+	 * @throws BufferOverflowException if the menu does not fit in the remaining space of the buffer
+	 */
+	public Menu renderTo(ByteBuffer out, Charset charset, boolean showChosen) {
+		EncodingAppendable encoder = new EncodingAppendable(out, charset);
+
+		try {
+			renderTo(encoder, showChosen);
+		} catch (IOException e) {
+			throw new AssertionError(e);
 		}
 
+		encoder.finish();
+		return this;
+	}
 
+	/**
+	 * Writes the title, underline, options, (un)chosen texts and exit option into the passed {@link Appendable}.
+	 * @param out
+	 * @param showChosen
+	 * @throws IOException
+	 */
+	private void write(Appendable out, boolean showChosen) throws IOException {
+		MenuText.writeTitle(out, title);
 
-		return ret.toString();
+		for (int i = 0; i < numOptions; i++) {
+			MenuText.writeOption(out, i + 1, options[i], showChosen, showChosen && chosen.get(i), chosenText, unchosenText);
+		}
+
+		MenuText.writeExit(out, exitAllowed, exitOn, exitText);
+	}
+
+	/**
+	 * Discards all cached menu text so the next {@link #toString(boolean) toString} rebuilds it.
+	 * <br>{@link #getOptions() getOptions} calls this, but it must be called again after modifying an array kept from an earlier call once the menu has been displayed.
+	 */
+	public void invalidateRender() {
+		renderedPlain = null;
+		renderedChosen = null;
+	}
+
+	/**
+	 * Discards only the cached menu text that displays the (un)chosen texts.
+	 */
+	protected void invalidateChosenRender() {
+		renderedChosen = null;
 	}
 
 	/**
@@ -323,10 +755,16 @@ public class Menu {
 
 	/**
 	 * Copies all of another {@link Menu}'s values into this.
+	 * <br>The options and chosen flags are shared with the other Menu instead of copied, so copying takes the same time for any number of options.
+	 * Whichever Menu changes them while they are shared makes its own copy then, so the other Menu is only read.
+	 * <br>Options the other Menu has handed out through {@link #getOptions() getOptions} are cloned instead, since the caller may still write to them.
+	 * <br>Several threads may copy the same Menu at once, but the other Menu must not be changed while it is being copied.
 	 * Does not {@link #validateMembers() validate} the values.
 	 * @param other
 	 */
 	public void copy(Menu other) {
+		setConsole(other.getConsole());
+
 		setChoice(other.getChoice());
 		setLastChoice(other.getChoice());
 		
@@ -334,14 +772,33 @@ public class Menu {
 		setExitAllowed(other.isExitAllowed());
 		
 		setNumOptions(other.getNumOptions());
-		setOptions(other.getOptions());
+		if (other.optionsExposed) {
+			ownOptions(other.options.clone());
+		} else {
+			optionsHolders.release();
+			options = other.options;
+			optionsHolders = other.optionsHolders.acquire();
+			optionsExposed = false;
+		}
 		
 		setTitle(other.getTitle());
 		setExitText(other.getExitText());
 		
-		setChosen(other.getChosen());
+		chosenHolders.release();
+		chosen = other.chosen;
+		chosenHolders = other.chosenHolders.acquire();
 		setChosenText(other.getChosenText());
 		setUnchosenText(other.getUnchosenText());
+
+		//Both Menus now display the same text
+		renderedPlain = other.renderedPlain;
+		renderedChosen = other.renderedChosen;
+
+		handlers = other.handlers == null ? null : other.handlers.clone();
+		asyncHandlers = other.asyncHandlers == null ? null : other.asyncHandlers.clone();
+		exitHandler = other.exitHandler;
+		exitAsync = other.exitAsync;
+		executor = other.executor;
 	}
 
 
@@ -366,7 +823,7 @@ public class Menu {
 	 * <br>- numOptions cannot be less than 0
 	 * <br>- exitOn cannot be the same number as one of the options
 	 * <br>- length of options array must be equal to numChoices
-	 * <br>- length of chosen array must be equal to numChoices
+	 * <br>- size of chosen set must be equal to numChoices
 	 * <br>- numOptions cannot be 0 if exiting is not allowed
 	 * @throws InvalidMemberException
 	 */
@@ -383,8 +840,8 @@ public class Menu {
 			throw new InvalidMemberException("The number of options (" + numOptions + ") does not equal the length of the options array (" + options.length + ").");
 		}
 
-		if (chosen.length != numOptions) {
-			throw new InvalidMemberException("The number of options (" + numOptions + ") does not equal the length of the chosen array (" + options.length + ").");
+		if (chosen.size() != numOptions) {
+			throw new InvalidMemberException("The number of options (" + numOptions + ") does not equal the size of the chosen set (" + chosen.size() + ").");
 		}
 
 		if (numOptions == 0 && !exitAllowed) {
@@ -403,6 +860,133 @@ public class Menu {
 
 
 	//-- Accessors and Mutators --\\
+	/**
+	 * @return the console this Menu is displayed on and reads choices from.
+	 */
+	public MenuConsole getConsole() {
+		return console;
+	}
+
+	/**
+	 * Sets the console this Menu is displayed on and reads choices from. Passing a null reference to this method will set the {@link MenuConsole#standard() standard} console.
+	 * @param console
+	 * @return a reference to this Menu object.
+	 */
+	public Menu setConsole(MenuConsole console) {
+		this.console = console == null ? MenuConsole.standard() : console;
+		return this;
+	}
+
+	/**
+	 * Note: index will be one less than the displayed option number.
+	 * @param index
+	 * @return the handler of the option at the specified index or null if it has none.
+	 */
+	public OptionHandler getHandlerAt(int index) {
+		if (index < 0 || index >= numOptions) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		return handlers == null || index >= handlers.length ? null : handlers[index];
+	}
+
+	/**
+	 * Sets the handler run on the caller's thread when the option at the specified index is chosen. Passing a null reference to this method removes the handler.
+	 * <br>Note: index will be one less than the displayed option number.
+	 * @param index
+	 * @param handler
+	 * @return a reference to this Menu object.
+	 */
+	public Menu setHandlerAt(int index, OptionHandler handler) {
+		return setHandlerAt(index, handler, false);
+	}
+
+	/**
+	 * Sets the handler run when the option at the specified index is chosen. Passing a null reference to this method removes the handler.
+	 * <br>Note: index will be one less than the displayed option number.
+	 * @param index
+	 * @param handler
+	 * @param async whether to run the handler on the {@link #getExecutor() executor} instead of the caller's thread
+	 * @return a reference to this Menu object.
+	 */
+	public Menu setHandlerAt(int index, OptionHandler handler, boolean async) {
+		if (index < 0 || index >= numOptions) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+
+		if (handlers == null) {
+			handlers = new OptionHandler[numOptions];
+			asyncHandlers = new boolean[numOptions];
+		} else if (index >= handlers.length) {
+			handlers = Arrays.copyOf(handlers, numOptions);
+			asyncHandlers = Arrays.copyOf(asyncHandlers, numOptions);
+		}
+
+		handlers[index] = handler;
+		asyncHandlers[index] = async && handler != null;
+		return this;
+	}
+
+	/**
+	 * @return the handler of the exit option or null if it has none.
+	 */
+	public OptionHandler getExitHandler() {
+		return exitHandler;
+	}
+
+	/**
+	 * Sets the handler run when the exit option is chosen. Passing a null reference to this method removes the handler.
+	 * @param handler
+	 * @param async whether to run the handler on the {@link #getExecutor() executor} instead of the caller's thread
+	 * @return a reference to this Menu object.
+	 */
+	public Menu setExitHandler(OptionHandler handler, boolean async) {
+		exitHandler = handler;
+		exitAsync = async && handler != null;
+		return this;
+	}
+
+	/**
+	 * @return the history choices are recorded in or null if they are not recorded.
+	 */
+	public ChoiceHistory getHistory() {
+		return history;
+	}
+
+	/**
+	 * Sets the history choices from getInput and replay are recorded in. Passing a null reference to this method stops recording.
+	 * <br>Multi-selects are not recorded, except for a multi-select of only the exit option, which is recorded as that choice like getInput records it.
+	 * @param history
+	 * @return a reference to this Menu object.
+	 */
+	public Menu setHistory(ChoiceHistory history) {
+		this.history = history;
+		return this;
+	}
+
+	/**
+	 * @return the executor async handlers run on. Unless one is set, an executor shared by every Menu that uses virtual threads when the JVM has them.
+	 */
+	public Executor getExecutor() {
+		return executor == null ? MenuExecutors.shared() : executor;
+	}
+
+	/**
+	 * Sets the executor async handlers run on. Passing a null reference to this method will set the shared executor.
+	 * @param executor
+	 * @return a reference to this Menu object.
+	 */
+	public Menu setExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * @return the future of the async handler run for the most recent choice of {@link #getInput(boolean) getInput}, or null if no async handler was run.
+	 */
+	public CompletableFuture<Void> getHandled() {
+		return handled;
+	}
+
 	/**
 	 * @return the most recent choice.
 	 */
@@ -452,6 +1036,7 @@ public class Menu {
 	 */
 	public Menu setNumOptions(int choices) {
 		numOptions = choices;
+		invalidateRender();
 		return this;
 	}
 	
@@ -467,6 +1052,7 @@ public class Menu {
 			numOptions = options.length;
 		}
 		
+		invalidateRender();
 		return this;
 	}
 
@@ -484,6 +1070,7 @@ public class Menu {
 	 */
 	public Menu setExitAllowed(boolean allowed) {
 		exitAllowed = allowed;
+		invalidateRender();
 		return this;
 	}
 
@@ -502,6 +1089,7 @@ public class Menu {
 	 */
 	public Menu setExitOn(int option) {
 		exitOn = option;
+		invalidateRender();
 		return this;
 	}
 
@@ -518,7 +1106,8 @@ public class Menu {
 	 * @return a reference to this Menu object.
 	 */
 	public Menu setTitle(String text) {
-		title = text == null ? "" : text;
+		title = text == null ? "" : StringPool.canonical(text);
+		invalidateRender();
 		return this;
 	}
 
@@ -535,15 +1124,22 @@ public class Menu {
 	 * @return a reference to this Menu object.
 	 */
 	public Menu setExitText(String text) {
-		exitText = text == null ? "" : text;
+		exitText = text == null ? "" : StringPool.canonical(text);
+		invalidateRender();
 		return this;
 	}
 
 	/**
+	 * If the options are shared with a {@link #copy(Menu) copy}, this Menu takes its own copy first, so the array returned can be modified.
+	 * <br>Discards the cached menu text, since the caller may modify the array.
+	 * <br>Later copies clone the array instead of sharing it, so writes to it never reach them.
 	 * @return the options as an array of Strings 
 	 */
 	public String[] getOptions() {
-		return options;
+		invalidateRender();
+		String[] ret = writableOptions();
+		optionsExposed = true;
+		return ret;
 	}
 
 	/**
@@ -554,12 +1150,14 @@ public class Menu {
 	 * @return a reference to this Menu object.
 	 */
 	public Menu setOptions(String[] choices) {
+		invalidateRender();
+
 		if (choices == null) {
-			options = new String[numOptions];
+			ownOptions(new String[numOptions]);
 			return this;
 		}
 
-		options = new String[choices.length];
+		ownOptions(new String[choices.length]);
 
 		for (int i = 0; i < choices.length; i++) {
 			setOptionAt(i, choices[i]);
@@ -577,51 +1175,94 @@ public class Menu {
 	}
 
 	/**
-	 * Sets the option at the specified index with a copy of the passed String.
+	 * Sets the option at the specified index with a copy of the passed String, or the {@link StringPool} instance of it if pooling is enabled.
 	 * <br>Note: index will be one less than the displayed option number.
 	 * @param index
 	 * @param option
 	 * @return a reference to this Menu object.
 	 */
 	public Menu setOptionAt(int index, String option) {
-		options[index] = new String(option);
+		writableOptions()[index] = StringPool.copy(option);
+		invalidateRender();
 		return this;
 	}
 
 	/**
-	 * @return the choice tracking array of booleans.
+	 * Takes a private copy of the options if they are shared with a {@link #copy(Menu) copy}.
+	 * @return the options array, safe to write.
 	 */
-	public boolean[] getChosen() {
+	private String[] writableOptions() {
+		if (optionsHolders.isShared()) {
+			ownOptions(options.clone());
+		}
+		return options;
+	}
+
+	/**
+	 * Replaces the options with an array no other Menu holds.
+	 */
+	private void ownOptions(String[] array) {
+		optionsHolders.release();
+		options = array;
+		optionsHolders = new Holders();
+		optionsExposed = false;
+	}
+
+	/**
+	 * Takes a private copy of the chosen flags if they are shared with a {@link #copy(Menu) copy}.
+	 * @return the chosen set, safe to write.
+	 */
+	private ChosenSet writableChosen() {
+		if (chosenHolders.isShared()) {
+			ownChosen(new ChosenSet(chosen));
+		}
 		return chosen;
 	}
 
 	/**
-	 * Copies the passed boolean array into a new one of the same size.
-	 * <br>A null argument will create an empty boolean array of size numOptions.
+	 * Replaces the chosen flags with a set no other Menu holds.
+	 */
+	private void ownChosen(ChosenSet set) {
+		chosenHolders.release();
+		chosen = set;
+		chosenHolders = new Holders();
+	}
+
+	/**
+	 * @return a copy of the choice tracking flags as an array of booleans.
+	 */
+	public boolean[] getChosen() {
+		return chosen.toArray();
+	}
+
+	/**
+	 * Copies the passed boolean array into a new choice tracking set of the same size.
+	 * <br>A null argument will create an empty choice tracking set of size numOptions.
 	 * @param chosen
 	 * @return a reference to this Menu object.
 	 */
 	public Menu setChosen(boolean[] chosen) {
-		if (chosen == null) {
-			this.chosen = new boolean[numOptions];
-			return this;
-		}
-
-		this.chosen = new boolean[chosen.length];
-
-		for (int i = 0; i < chosen.length; i++) {
-			setChosenAt(i, chosen[i]);
-		}
+		ownChosen(chosen == null ? new ChosenSet(numOptions) : new ChosenSet(chosen));
+		invalidateChosenRender();
 		return this;
 	}
 
 	/**
-	 * Allocates a new boolean array of size numOptions and sets all elements to false.
+	 * Takes ownership of a choice tracking set instead of copying it, for loaders whose set is already private to this Menu.
+	 * @param set
+	 */
+	void adoptChosen(ChosenSet set) {
+		ownChosen(set);
+		invalidateChosenRender();
+	}
+
+	/**
+	 * Allocates a new choice tracking set of size numOptions with every option unchosen.
 	 * @return a reference to this Menu object.
 	 */
 	public Menu initChosen() {
-		chosen = new boolean[numOptions];
-		setComplete(false);
+		ownChosen(new ChosenSet(numOptions));
+		invalidateChosenRender();
 
 		return this;
 	}
@@ -632,7 +1273,7 @@ public class Menu {
 	 * @return whether the specified option has been chosen.
 	 */
 	public boolean isChosenAt(int index) {
-		return chosen[index];
+		return chosen.get(index);
 	}
 
 	/**
@@ -643,7 +1284,9 @@ public class Menu {
 	 * @return a reference to this Menu object.
 	 */
 	public Menu setChosenAt(int index, boolean picked) {
-		chosen[index] = picked;
+		if (chosen.get(index) != picked && writableChosen().set(index, picked)) {
+			invalidateChosenRender();
+		}
 		return this;
 	}
 
@@ -652,23 +1295,17 @@ public class Menu {
 	 * @return whether all options have been chosen at least once.
 	 */
 	public boolean isComplete() {
-		for (int i = 0; i < numOptions; i++) {
-			if (!chosen[i]) {
-				return false;
-			}
-		}
-
-		return true;
+		return chosen.isComplete();
 	}
 
 	/**
-	 * Sets all of the elements in the choice tracking array to the passed value.
+	 * Sets all of the flags in the choice tracking set to the passed value.
 	 * @param complete
 	 * @return a reference to this Menu object.
 	 */
 	public Menu setComplete(boolean complete) {
-		for (int i = 0; i < numOptions; i++) {
-			chosen[i] = complete;
+		if (writableChosen().setAll(complete)) {
+			invalidateChosenRender();
 		}
 		return this;
 	}
@@ -677,15 +1314,7 @@ public class Menu {
 	 * @return the number of options that have been chosen.
 	 */
 	public int getNumChosen() {
-		int ret = 0;
-
-		for (int i = 0; i < numOptions; i++) {
-			if (chosen[i]) {
-				ret++;
-			}
-		}
-
-		return ret;
+		return chosen.count();
 	}
 
 	/**
@@ -708,7 +1337,8 @@ public class Menu {
 	 * @return a reference to this Menu object.
 	 */
 	public Menu setChosenText(String text) {
-		chosenText = text == null ? "" : text;
+		chosenText = text == null ? "" : StringPool.canonical(text);
+		invalidateChosenRender();
 		return this;
 	}
 
@@ -725,7 +1355,8 @@ public class Menu {
 	 * @return a reference to this Menu object.
 	 */
 	public Menu setUnchosenText(String text) {
-		unchosenText = text == null ? "" : text;
+		unchosenText = text == null ? "" : StringPool.canonical(text);
+		invalidateChosenRender();
 		return this;
 	}
 
@@ -735,84 +1366,128 @@ public class Menu {
 	/**
 	 * Builds a {@link Menu} object from a JSON file. 
 	 * @param path
-	 * @return the {@link Menu} object or null if the Menu could not be built
+	 * @return the {@link Menu} object
 	 * @throws FileNotFoundException
+	 * @throws JsonException if the file is not a valid menu document or can't be read
 	 */
 	public static Menu loadFromFile(String path) throws FileNotFoundException  {
-		Menu ret = null;
+		try (InputStream in = new FileInputStream(path)) {
+			return loadFromStream(in);
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new JsonException("Could not close " + path, e);
+		}
+	}
 
-		try (JsonReader jr = Json.createReader(new FileInputStream(path))) {
-			JsonObject jo = jr.readObject();
+	/**
+	 * Builds a {@link Menu} object from a JSON document read from the stream in a single pass.
+	 * <br>Does not close the stream.
+	 * @param in
+	 * @return the {@link Menu} object
+	 * @throws JsonException if the stream is not a valid menu document or can't be read
+	 */
+	public static Menu loadFromStream(InputStream in) {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginLoad();
 
-			JsonArray ja = jo.getJsonArray("options");
-			int numOptions = jo.getInt("numOptions", ja != null ? ja.size() : 0);
-			String[] options = new String[numOptions];
-			
-			for (int i = 0; i < numOptions; i++) {
-				options[i] = ja.getString(i);
-			}
+		Menu ret = MenuJson.read(in);
+		ret.validateMembers();
+
+		if (metrics != null) {
+			metrics.recordLoad(start, event, ret.numOptions);
+		}
+		return ret;
+	}
+
+	/**
+	 * Builds a {@link Menu} object from a JSON document read from the channel in a single pass.
+	 * <br>Does not close the channel.
+	 * @param channel
+	 * @return the {@link Menu} object
+	 * @throws JsonException if the channel is not a valid menu document or can't be read
+	 */
+	public static Menu loadFromChannel(ReadableByteChannel channel) {
+		return loadFromStream(Channels.newInputStream(channel));
+	}
+
+	/**
+	 * Builds a {@link Menu} that takes ownership of the options array instead of copying every option.
+	 * <br>Used by the loaders, whose option Strings are already private to the new Menu.
+	 * <br>If {@link StringPool pooling} is enabled, each option is replaced with the pool's instance.
+	 * @return the validated {@link Menu}
+	 */
+	static Menu adopt(String title, int numOptions, String[] options, boolean exitAllowed, int exitOn, String exitText, String chosenText, String unchosenText) {
+		Menu ret = new Menu();
+
+		ret.exitAllowed = exitAllowed;
+		ret.exitOn = exitOn;
 
-			ret = new Menu(jo.getString("title", ""), 
-					numOptions, 
-					options, 
-					jo.getBoolean("exitAllowed", false), 
-					jo.getInt("exitOn", 0), 
-					jo.getString("exitText", ""), 
-					jo.getString("chosenText", ""), 
-					jo.getString("unchosenText", ""));
+		ret.numOptions = numOptions;
+		ret.ownOptions(options);
+
+		StringPool pool = StringPool.getShared();
+		if (pool != null) {
+			for (int i = 0; i < options.length; i++) {
+				if (options[i] != null) {
+					options[i] = pool.intern(options[i]);
+				}
+			}
 		}
 
+		ret.title = title == null ? "" : StringPool.canonical(title);
+		ret.exitText = exitText == null ? "" : StringPool.canonical(exitText);
+
+		ret.initChosen();
+		ret.chosenText = StringPool.canonical(chosenText);
+		ret.unchosenText = StringPool.canonical(unchosenText);
+
+		ret.invalidateRender();
 		ret.validateMembers();
 		return ret;
 	}
 
 	/**
 	 * Writes a {@link Menu} to a JSON file.
+	 * <br>The options are streamed through a buffer into a temporary file next to the target, which is then moved into place atomically.
+	 * A failed save leaves any existing file untouched.
 	 * @param path
 	 * @param menu
-	 * @throws FileNotFoundException
+	 * @throws FileNotFoundException if the file's directory does not exist or can't be written to
+	 * @throws JsonException if the file could not be written
 	 */
 	public static void saveToFile(String path, Menu menu) throws FileNotFoundException {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginSave();
+
 		menu.validateMembers();
-		
-		try (JsonWriter jw = Json.createWriter(new FileOutputStream(path))) {
-			JsonObjectBuilder jo = Json.createObjectBuilder();
-			JsonArrayBuilder ja = Json.createArrayBuilder();
-			addString("title", menu.getTitle(), jo);
-			jo.add("numOptions", menu.getNumOptions());
-
-			for (int i = 0; i < menu.getNumOptions(); i++) {
-				ja.add(menu.getOptionAt(i));
-			}
-			jo.add("options", ja);
-			jo.add("exitAllowed", menu.isExitAllowed());
-			jo.add("exitOn", menu.getExitOn());
-			addString("exitText", menu.getExitText(), jo);
-			addString("chosenText", menu.getChosenText(), jo);
-			addString("unchosenText", menu.getUnchosenText(), jo);
-			
-			jw.write(jo.build());
+		MenuJson.writeFile(Paths.get(path), menu);
+
+		if (metrics != null) {
+			metrics.recordSave(start, event, menu.numOptions);
 		}
 	}
 
 	/**
-	 * Convenience method that handles adding a null String to the JsonObjectBuilder. 
-	 * @param key the String object in the Menu
-	 * @param value the text to be displayed
-	 * @param obj
-	 * @return a reference to the passed {@link JsonObjectBuilder}
+	 * Writes a {@link Menu} as a JSON document to the stream, one option at a time.
+	 * <br>Flushes but does not close the stream.
+	 * @param out
+	 * @param menu
+	 * @throws JsonException if the stream could not be written
 	 */
-	private static JsonObjectBuilder addString(String key, String value, JsonObjectBuilder obj) {
-		if (value == null) {
-			obj.add(key, JsonValue.NULL);
-		} else {
-			obj.add(key, value);
-		}
-		
-		return obj;
-	}
-
+	public static void saveToStream(OutputStream out, Menu menu) {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginSave();
 
+		menu.validateMembers();
+		MenuJson.write(out, menu);
 
+		if (metrics != null) {
+			metrics.recordSave(start, event, menu.numOptions);
+		}
+	}
 
 }
\ No newline at end of file
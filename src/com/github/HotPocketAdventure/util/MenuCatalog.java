@@ -0,0 +1,295 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.HotPocketAdventure.util.exceptions.InvalidMemberException;
+
+/**
+ * A size-bounded cache of loaded {@link MenuDefinition}s, keyed by file path.
+ * <br>- The least recently used definition is evicted when the cache is full.
+ * <br>- Every lookup compares the file's modification time and size with those it was loaded with, and reloads it if either changed.
+ * <br>- A file is loaded once however many threads miss it at the same time. The others wait for that load and share its definition.
+ * <br>- Files ending in {@link MenuFile#EXTENSION} are opened as binary menu files, everything else is loaded as JSON.
+ * <br>- Thread safe. Definitions are immutable and shared by every caller.
+ * @author Michael Bradley
+ *
+ */
+public class MenuCatalog {
+
+	private final int maxSize;
+	private final LinkedHashMap<Path, Cached> entries;
+	//Loads in progress, guarded by entries
+	private final Map<Path, Loading> loading;
+
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong evictions;
+	private final AtomicLong invalidations;
+
+	/**
+	 * @param maxSize the number of definitions kept before the least recently used one is evicted
+	 */
+	public MenuCatalog(final int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("The maximum size (" + maxSize + ") must be greater than zero.");
+		}
+
+		this.maxSize = maxSize;
+		hits = new AtomicLong();
+		misses = new AtomicLong();
+		evictions = new AtomicLong();
+		invalidations = new AtomicLong();
+		loading = new HashMap<>();
+
+		entries = new LinkedHashMap<Path, Cached>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Path, Cached> eldest) {
+				if (size() > maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached definition for the file, loading it if it is not cached or has changed since it was loaded.
+	 * <br>The file is read without holding the cache's lock, so a slow load does not block lookups of other files.
+	 * Lookups of a file that is already being loaded wait for that load instead of starting another.
+	 * @param path
+	 * @return the shared definition
+	 * @throws IOException if the file could not be read
+	 * @throws InvalidMemberException if the menu in the file breaks the menu rules
+	 */
+	public MenuDefinition get(Path path) throws IOException {
+		final Path key = path.toAbsolutePath().normalize();
+		BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+		long modified = attributes.lastModifiedTime().toMillis();
+		long size = attributes.size();
+		Loading load;
+		boolean joined;
+
+		synchronized (entries) {
+			Cached entry = entries.get(key);
+
+			if (entry != null) {
+				if (entry.modified == modified && entry.size == size) {
+					hits.incrementAndGet();
+					return entry.definition;
+				}
+
+				entries.remove(key);
+				invalidations.incrementAndGet();
+			}
+
+			load = loading.get(key);
+			if (load != null && load.modified == modified && load.size == size) {
+				hits.incrementAndGet();
+				joined = true;
+			} else {
+				load = new Loading(new FutureTask<MenuDefinition>(new Callable<MenuDefinition>() {
+					@Override
+					public MenuDefinition call() throws IOException {
+						return load(key);
+					}
+				}), modified, size);
+				loading.put(key, load);
+				joined = false;
+			}
+		}
+
+		//Waited for outside the lock, the load needs it to finish
+		if (joined) {
+			return load.await();
+		}
+
+		misses.incrementAndGet();
+		load.task.run();
+
+		synchronized (entries) {
+			//Not cached if the file was invalidated or a newer version started loading meanwhile
+			if (loading.get(key) == load) {
+				loading.remove(key);
+				if (load.succeeded()) {
+					entries.put(key, new Cached(load.await(), modified, size));
+				}
+			}
+		}
+		return load.await();
+	}
+
+	/**
+	 * Removes the file's definition from the cache so the next lookup reloads it.
+	 * @param path
+	 * @return whether a definition was cached for the file.
+	 */
+	public boolean invalidate(Path path) {
+		Path key = path.toAbsolutePath().normalize();
+
+		synchronized (entries) {
+			loading.remove(key);
+			if (entries.remove(key) != null) {
+				invalidations.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Removes every definition from the cache. Does not reset the counters.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			loading.clear();
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return the number of cached definitions.
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return the number of definitions kept before the least recently used one is evicted.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return the number of lookups answered from the cache.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of lookups that had to load the file, including reloads of changed files.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of definitions evicted to stay within the maximum size.
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return the number of definitions dropped because their file changed or they were invalidated.
+	 */
+	public long getInvalidations() {
+		return invalidations.get();
+	}
+
+	/**
+	 * Loads a definition from a binary or JSON menu file.
+	 * @param path
+	 * @return the definition
+	 * @throws IOException
+	 */
+	protected MenuDefinition load(Path path) throws IOException {
+		if (path.getFileName().toString().endsWith(MenuFile.EXTENSION)) {
+			return MenuFile.open(path).getDefinition();
+		}
+
+		try (InputStream in = Files.newInputStream(path)) {
+			return new MenuDefinition(Menu.loadFromStream(in));
+		}
+	}
+
+	/**
+	 * A load in progress and the state of the file it is loading.
+	 */
+	private static final class Loading {
+		final FutureTask<MenuDefinition> task;
+		final long modified;
+		final long size;
+
+		Loading(FutureTask<MenuDefinition> task, long modified, long size) {
+			this.task = task;
+			this.modified = modified;
+			this.size = size;
+		}
+
+		/**
+		 * @return whether the load has finished without throwing.
+		 */
+		boolean succeeded() {
+			try {
+				task.get();
+				return true;
+			} catch (ExecutionException | InterruptedException e) {
+				return false;
+			}
+		}
+
+		/**
+		 * Waits for the load to finish.
+		 * @return the definition loaded
+		 * @throws IOException the exception thrown by the load, if any
+		 */
+		MenuDefinition await() throws IOException {
+			boolean interrupted = false;
+
+			try {
+				while (true) {
+					try {
+						return task.get();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw (Error) cause;
+			} finally {
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A cached definition and the state of the file it was loaded from.
+	 */
+	private static final class Cached {
+		final MenuDefinition definition;
+		final long modified;
+		final long size;
+
+		Cached(MenuDefinition definition, long modified, long size) {
+			this.definition = definition;
+			this.modified = modified;
+			this.size = size;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * The input source and output sink a {@link Menu} is displayed on and reads its choices from.
+ * <br>- Every Menu uses the {@link #standard() standard} console unless it is given its own.
+ * <br>- Menus are printed in full every time they are displayed, unless the console has an {@link AnsiRenderer} that redraws only what changed.
+ * <br>- A console is not thread safe. Menus that are driven concurrently must each have their own console.
+ * @author Michael Bradley
+ *
+ */
+public class MenuConsole implements Closeable {
+
+	private final ChoiceReader reader;
+	private final PrintStream output;
+	private AnsiRenderer renderer;
+
+	/**
+	 * Creates a console that reads choices from in and writes menus to out.
+	 * <br>Output is buffered and flushed after every menu and prompt.
+	 * @param in
+	 * @param out
+	 */
+	public MenuConsole(InputStream in, OutputStream out) {
+		this(new ChoiceReader(in), new PrintStream(new BufferedOutputStream(out), true));
+	}
+
+	/**
+	 * Creates a console that reads choices from in and writes menus to out using buffers of the given size.
+	 * <br>Output is buffered and flushed after every menu and prompt.
+	 * @param in
+	 * @param out
+	 * @param bufferSize the size in bytes of both the input and the output buffer
+	 */
+	public MenuConsole(InputStream in, OutputStream out, int bufferSize) {
+		this(new ChoiceReader(in, bufferSize), new PrintStream(new BufferedOutputStream(out, bufferSize), true));
+	}
+
+	/**
+	 * Creates a console from an existing reader and output stream.
+	 * @param reader
+	 * @param output
+	 */
+	public MenuConsole(ChoiceReader reader, PrintStream output) {
+		this.reader = reader;
+		this.output = output;
+	}
+
+	/**
+	 * @return the console shared by every Menu that reads the standard input and writes to the standard output.
+	 */
+	public static MenuConsole standard() {
+		return Standard.CONSOLE;
+	}
+
+	/**
+	 * @return the reader choices are parsed from.
+	 */
+	public ChoiceReader getReader() {
+		return reader;
+	}
+
+	/**
+	 * @return the stream menus are written to.
+	 */
+	public PrintStream getOutput() {
+		return output;
+	}
+
+	/**
+	 * @return the renderer menus are drawn with or null if they are printed in full.
+	 */
+	public AnsiRenderer getRenderer() {
+		return renderer;
+	}
+
+	/**
+	 * Sets the renderer menus are drawn with. Passing a null reference to this method will print menus in full.
+	 * <br>Only set a renderer if the output is an ANSI terminal.
+	 * @param renderer
+	 * @return a reference to this MenuConsole object.
+	 */
+	public MenuConsole setRenderer(AnsiRenderer renderer) {
+		this.renderer = renderer;
+		return this;
+	}
+
+	/**
+	 * Writes the input prompt and flushes the output so it is visible before blocking on input.
+	 */
+	public void prompt() {
+		prompt("Enter: ");
+	}
+
+	/**
+	 * Writes a prompt of the caller's choosing and flushes the output so it is visible before blocking on input.
+	 * @param text
+	 */
+	public void prompt(String text) {
+		output.print(text);
+		output.flush();
+	}
+
+	/**
+	 * Closes the input and output of this console. Does nothing for the {@link #standard() standard} console.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this == Standard.CONSOLE) {
+			return;
+		}
+
+		try {
+			reader.close();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Holds the standard console so System.in and System.out are only read the first time it is used.
+	 */
+	private static class Standard {
+		static final MenuConsole CONSOLE = new MenuConsole(new ChoiceReader(System.in), System.out);
+	}
+}
@@ -0,0 +1,376 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.IOException;
+
+import com.github.HotPocketAdventure.util.exceptions.InvalidMemberException;
+
+/**
+ * The unchanging content of a menu: its title, options, exit option and (un)chosen texts.
+ * <br>- Immutable and validated once when constructed, so one definition can be shared by any number of threads and {@link MenuSession sessions} without locks or copies.
+ * <br>- Follows the same rules as {@link Menu#validateMembers() Menu.validateMembers}. Null texts are stored as empty Strings.
+ * <br>- Options can be held in an array or supplied on demand by an {@link OptionSource}.
+ * <br>- The {@link OptionIndex search index} is built the first time it is needed and shared afterwards.
+ * <br>- Choices are only counted once {@link #getStatistics() getStatistics} has been called, until then sessions skip counting entirely.
+ * @author Michael Bradley
+ *
+ */
+public final class MenuDefinition {
+
+	private final String title;
+	private final OptionSource options;
+
+	private final boolean exitAllowed;
+	private final int exitOn;
+	private final String exitText;
+
+	private final String chosenText;
+	private final String unchosenText;
+
+	//Rendered without (un)chosen texts on first use when the options are held in memory. Racy but benign, every thread builds the same String.
+	private String rendered;
+
+	//Built on first search, reading every option once
+	private volatile OptionIndex index;
+
+	//Created on first request, sessions count into it once it exists
+	private volatile ChoiceStatistics statistics;
+
+	/**
+	 * Copies the content of a Menu. The Menu's choice state is not copied.
+	 * @param menu
+	 * @throws InvalidMemberException if the Menu is degenerate
+	 */
+	public MenuDefinition(Menu menu) {
+		this(menu.getTitle(), menu.options, menu.isExitAllowed(), menu.getExitOn(), menu.getExitText(), menu.getChosenText(), menu.getUnchosenText());
+	}
+
+	/**
+	 * Sets all properties of the definition. The options array is copied, the Strings in it are shared.
+	 * @param title
+	 * @param options
+	 * @param exitAllowed
+	 * @param exitOn
+	 * @param exitText
+	 * @param chosenText
+	 * @param unchosenText
+	 * @throws InvalidMemberException if the values break the menu rules
+	 */
+	public MenuDefinition(String title, String[] options, boolean exitAllowed, int exitOn, String exitText, String chosenText, String unchosenText) {
+		this(title, new ArrayOptions(options == null ? new String[0] : options.clone()), exitAllowed, exitOn, exitText, chosenText, unchosenText);
+	}
+
+	/**
+	 * Sets all properties of the definition, taking the options from a source that is only asked for the options being displayed.
+	 * @param title
+	 * @param options
+	 * @param exitAllowed
+	 * @param exitOn
+	 * @param exitText
+	 * @param chosenText
+	 * @param unchosenText
+	 * @throws InvalidMemberException if the values break the menu rules
+	 */
+	public MenuDefinition(String title, OptionSource options, boolean exitAllowed, int exitOn, String exitText, String chosenText, String unchosenText) {
+		if (options.size() < 0) {
+			throw new InvalidMemberException("The number of options is less than zero.");
+		}
+
+		this.title = nonNull(title);
+		this.options = options;
+
+		this.exitAllowed = exitAllowed;
+		this.exitOn = exitOn;
+		this.exitText = nonNull(exitText);
+
+		this.chosenText = nonNull(chosenText);
+		this.unchosenText = nonNull(unchosenText);
+
+		validate();
+	}
+
+	/**
+	 * Checks the same rules as {@link Menu#validateMembers()} that can apply to a definition.
+	 * @throws InvalidMemberException
+	 */
+	private void validate() {
+		int numOptions = options.size();
+
+		if (exitOn >= 1 && exitOn <= numOptions) {
+			throw new InvalidMemberException("The exit option's number (" + exitOn + ") is within the range [1, " + numOptions + "].");
+		}
+
+		if (numOptions == 0 && !exitAllowed) {
+			throw new InvalidMemberException("The number of options is zero and exiting is not allowed.");
+		}
+	}
+
+	/**
+	 * @return a new session for this definition with nothing chosen yet.
+	 */
+	public MenuSession newSession() {
+		return new MenuSession(this);
+	}
+
+	/**
+	 * @return a new mutable {@link Menu} with the same content as this definition.
+	 */
+	public Menu toMenu() {
+		return new Menu(title, options.size(), getOptions(), exitAllowed, exitOn, exitText, chosenText, unchosenText);
+	}
+
+	/**
+	 * Checks whether the argument is a valid menu option.
+	 * @param choice
+	 * @return true if choice is equal to one of the options or if exiting is allowed and choice is equal to the exit option, otherwise false.
+	 */
+	public boolean isValidOption(int choice) {
+		return (choice >= 1 && choice <= options.size()) || (exitAllowed && choice == exitOn);
+	}
+
+	/**
+	 * Built once and shared afterwards if the options are held in memory.
+	 * Options from any other {@link OptionSource} are read again each time, so the whole text is never kept.
+	 * @return The menu as a String with no (un)chosen texts.
+	 */
+	@Override
+	public String toString() {
+		String ret = rendered;
+
+		if (ret == null) {
+			StringBuilder sb = new StringBuilder(title.length() * 2 + Math.min(options.size(), 1 << 20) * 24 + 16);
+			try {
+				write(sb, null, false, 0, options.size());
+			} catch (IOException e) {
+				throw new AssertionError(e);
+			}
+			ret = sb.toString();
+			if (isInMemory()) {
+				rendered = ret;
+			}
+		}
+
+		return ret;
+	}
+
+	/**
+	 * @return whether the options are held in an array rather than read from another {@link OptionSource} on demand.
+	 */
+	boolean isInMemory() {
+		return options instanceof ArrayOptions;
+	}
+
+	/**
+	 * Writes the menu into the passed {@link Appendable}.
+	 * @param out
+	 * @param chosen the choice tracking flags to display, null if nothing has been chosen
+	 * @param showChosen whether to add the (un)chosen texts to each option
+	 * @throws IOException
+	 */
+	void write(Appendable out, ChosenSet chosen, boolean showChosen) throws IOException {
+		if (!showChosen && rendered != null) {
+			out.append(rendered);
+			return;
+		}
+
+		write(out, chosen, showChosen, 0, options.size());
+	}
+
+	/**
+	 * Writes the title, the options in the range [from, to) and the exit option into the passed {@link Appendable}.
+	 * <br>Only the options in the range are asked for, so the cost does not depend on the total number of options.
+	 * @param out
+	 * @param chosen the choice tracking flags to display, null if nothing has been chosen
+	 * @param showChosen whether to add the (un)chosen texts to each option
+	 * @param from the index of the first option to write
+	 * @param to the index after the last option to write
+	 * @throws IOException
+	 */
+	void write(Appendable out, ChosenSet chosen, boolean showChosen, int from, int to) throws IOException {
+		MenuText.writeTitle(out, title);
+
+		for (int i = from; i < to; i++) {
+			MenuText.writeOption(out, i + 1, options.get(i), showChosen, chosen != null && chosen.get(i), chosenText, unchosenText);
+		}
+
+		MenuText.writeExit(out, exitAllowed, exitOn, exitText);
+	}
+
+	/**
+	 * Writes the title, the listed options and the exit option into the passed {@link Appendable}.
+	 * @param out
+	 * @param chosen the choice tracking flags to display, null if nothing has been chosen
+	 * @param showChosen whether to add the (un)chosen texts to each option
+	 * @param numbers the option numbers to choose from
+	 * @param from the position in numbers of the first option to write
+	 * @param to the position in numbers after the last option to write
+	 * @throws IOException
+	 */
+	void write(Appendable out, ChosenSet chosen, boolean showChosen, int[] numbers, int from, int to) throws IOException {
+		MenuText.writeTitle(out, title);
+
+		for (int i = from; i < to; i++) {
+			int index = numbers[i] - 1;
+			MenuText.writeOption(out, numbers[i], options.get(index), showChosen, chosen != null && chosen.get(index), chosenText, unchosenText);
+		}
+
+		MenuText.writeExit(out, exitAllowed, exitOn, exitText);
+	}
+
+	/**
+	 * Searches the option texts, ignoring case. See {@link OptionIndex#search(String, int)} for how matches are ranked.
+	 * <br>The first search builds the index, which reads every option once.
+	 * @param query
+	 * @param limit the largest number of matches to return
+	 * @return the matching option numbers, best first.
+	 */
+	public int[] search(String query, int limit) {
+		return getIndex().search(query, limit);
+	}
+
+	/**
+	 * @return the search index of the options, building it if this is the first use.
+	 */
+	public OptionIndex getIndex() {
+		OptionIndex ret = index;
+
+		if (ret == null) {
+			synchronized (this) {
+				ret = index;
+				if (ret == null) {
+					ret = new OptionIndex(options);
+					index = ret;
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Turns on counting of the choices made in every session of this definition, if it is not on already.
+	 * @return the statistics of this definition.
+	 */
+	public ChoiceStatistics getStatistics() {
+		ChoiceStatistics ret = statistics;
+
+		if (ret == null) {
+			synchronized (this) {
+				ret = statistics;
+				if (ret == null) {
+					ret = new ChoiceStatistics(options.size());
+					statistics = ret;
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * @return the statistics of this definition or null if choices are not counted.
+	 */
+	ChoiceStatistics statistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return the title of the menu or an empty String if it has none.
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * @return the number of options excluding the exit option.
+	 */
+	public int getNumOptions() {
+		return options.size();
+	}
+
+	/**
+	 * Note: index will be one less than the displayed option number.
+	 * @param index
+	 * @return the option at the specified index.
+	 */
+	public String getOptionAt(int index) {
+		return options.get(index);
+	}
+
+	/**
+	 * @return a new array holding every option. Asks the option source for every option.
+	 */
+	public String[] getOptions() {
+		String[] ret = new String[options.size()];
+
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = options.get(i);
+		}
+		return ret;
+	}
+
+	/**
+	 * @return the source the options are read from.
+	 */
+	public OptionSource getOptionSource() {
+		return options;
+	}
+
+	/**
+	 * @return whether exiting with the exit option is possible.
+	 */
+	public boolean isExitAllowed() {
+		return exitAllowed;
+	}
+
+	/**
+	 * @return the exit option's number.
+	 */
+	public int getExitOn() {
+		return exitOn;
+	}
+
+	/**
+	 * @return the exit option's text.
+	 */
+	public String getExitText() {
+		return exitText;
+	}
+
+	/**
+	 * @return the text displayed next to options that have been chosen.
+	 */
+	public String getChosenText() {
+		return chosenText;
+	}
+
+	/**
+	 * @return the text displayed next to options that have not been chosen.
+	 */
+	public String getUnchosenText() {
+		return unchosenText;
+	}
+
+	private static String nonNull(String text) {
+		return text == null ? "" : text;
+	}
+
+	/**
+	 * Options held in an array owned by the definition.
+	 */
+	private static final class ArrayOptions implements OptionSource {
+
+		private final String[] options;
+
+		ArrayOptions(String[] options) {
+			this.options = options;
+		}
+
+		@Override
+		public int size() {
+			return options.length;
+		}
+
+		@Override
+		public String get(int index) {
+			return options[index];
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.github.HotPocketAdventure.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JDK Flight Recorder events committed by {@link MenuMetrics}.
+ * <br>Compiling needs Java 11, the library's baseline. Only loaded once MenuMetrics has checked that the running JVM has Flight Recorder, so the library still runs on Java 11 JVMs built without it.
+ * <br>Each event is begun when the measured work starts and committed when it ends, so its duration is the measured latency.
+ * Events are handed to MenuMetrics as Objects so that MenuMetrics never links against jdk.jfr.
+ * @author Michael Bradley
+ *
+ */
+final class MenuEvents {
+
+	private MenuEvents() {
+	}
+
+	/**
+	 * @return the begun event or null if no recording has it enabled.
+	 */
+	static Object beginRender() {
+		return begin(new Render());
+	}
+
+	/**
+	 * @return the begun event or null if no recording has it enabled.
+	 */
+	static Object beginThinkTime() {
+		return begin(new ThinkTime());
+	}
+
+	/**
+	 * @return the begun event or null if no recording has it enabled.
+	 */
+	static Object beginLoad() {
+		return begin(new Load());
+	}
+
+	/**
+	 * @return the begun event or null if no recording has it enabled.
+	 */
+	static Object beginSave() {
+		return begin(new Save());
+	}
+
+	private static Event begin(Event event) {
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	static void render(Object begun, int numOptions) {
+		Render event = (Render) begun;
+		event.end();
+		if (event.shouldCommit()) {
+			event.numOptions = numOptions;
+			event.commit();
+		}
+	}
+
+	static void thinkTime(Object begun, int choice) {
+		ThinkTime event = (ThinkTime) begun;
+		event.end();
+		if (event.shouldCommit()) {
+			event.choice = choice;
+			event.commit();
+		}
+	}
+
+	static void load(Object begun, int numOptions) {
+		Load event = (Load) begun;
+		event.end();
+		if (event.shouldCommit()) {
+			event.numOptions = numOptions;
+			event.commit();
+		}
+	}
+
+	static void save(Object begun, int numOptions) {
+		Save event = (Save) begun;
+		event.end();
+		if (event.shouldCommit()) {
+			event.numOptions = numOptions;
+			event.commit();
+		}
+	}
+
+	@Name("com.github.HotPocketAdventure.MenuRender")
+	@Label("Menu Render")
+	@Description("Building the text of a menu")
+	@Category("Menu")
+	@StackTrace(false)
+	static final class Render extends Event {
+		@Label("Options")
+		int numOptions;
+	}
+
+	@Name("com.github.HotPocketAdventure.MenuThinkTime")
+	@Label("Menu Think Time")
+	@Description("Time from asking for a choice until a valid one was entered")
+	@Category("Menu")
+	@StackTrace(false)
+	static final class ThinkTime extends Event {
+		@Label("Choice")
+		int choice;
+	}
+
+	@Name("com.github.HotPocketAdventure.MenuLoad")
+	@Label("Menu Load")
+	@Description("Reading and validating a menu document")
+	@Category("Menu")
+	static final class Load extends Event {
+		@Label("Options")
+		int numOptions;
+	}
+
+	@Name("com.github.HotPocketAdventure.MenuSave")
+	@Label("Menu Save")
+	@Description("Validating and writing a menu document")
+	@Category("Menu")
+	static final class Save extends Event {
+		@Label("Options")
+		int numOptions;
+	}
+}
@@ -0,0 +1,54 @@
+package com.github.HotPocketAdventure.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the executors used to run menu work off the caller's thread.
+ * @author Michael Bradley
+ *
+ */
+final class MenuExecutors {
+
+	private MenuExecutors() {
+	}
+
+	/**
+	 * @return the executor shared by every menu that has not been given its own. It is never shut down, its threads don't keep the JVM running.
+	 */
+	static Executor shared() {
+		return Shared.EXECUTOR;
+	}
+
+	/**
+	 * Creates an executor that starts a new virtual thread for every task when the running JVM supports them,
+	 * otherwise a cached pool of daemon platform threads.
+	 * <br>The virtual thread factory is looked up reflectively so the library still runs on JVMs without them.
+	 * @return a new executor that the caller is responsible for shutting down
+	 */
+	static ExecutorService newPerTaskExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "menu-worker");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Holds the shared executor so it is only created the first time it is used.
+	 */
+	private static class Shared {
+		static final Executor EXECUTOR = newPerTaskExecutor();
+	}
+}
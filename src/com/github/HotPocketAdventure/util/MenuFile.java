@@ -0,0 +1,413 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.github.HotPocketAdventure.util.exceptions.InvalidMemberException;
+
+/**
+ * A compact binary menu file that is memory mapped instead of parsed.
+ * <br>- Opening a file reads its header and checks its table of option offsets, but decodes no option text.
+ * Opening reads and checks only the header and the bounds of the offset table, so it takes the same time for any number of options.
+ * Each option's offsets are checked when it is read, a corrupt one throws an {@link UncheckedIOException}.
+ * <br>- Option text is decoded from the mapping each time {@link MenuDefinition#getOptionAt(int) getOptionAt} is called.
+ * <br>- Holds the same content as the JSON format and can be converted to and from it. Can also hold the chosen flags.
+ * <br>- Option data is limited to 2GB per file.
+ * <p>
+ * Layout, all numbers big endian:
+ * <br>- int magic "JMNU", short version, short flags (1 = exit allowed, 2 = has chosen flags)
+ * <br>- int numOptions, int exitOn
+ * <br>- title, exitText, chosenText and unchosenText, each an int byte length followed by UTF-8 bytes
+ * <br>- int[numOptions + 1] offsets of each option into the option data, the last one being its length
+ * <br>- the UTF-8 option data
+ * <br>- if flagged, the chosen flags as longs where bit i of long i / 64 is the flag of option i + 1
+ * @author Michael Bradley
+ *
+ */
+public final class MenuFile {
+
+	public static final String EXTENSION = ".menu";
+
+	private static final int MAGIC = 0x4A4D4E55;
+	private static final short VERSION = 1;
+
+	private static final short FLAG_EXIT_ALLOWED = 1;
+	private static final short FLAG_CHOSEN = 2;
+
+	private final Path path;
+	private final MenuDefinition definition;
+	private final ByteBuffer buffer;
+	private final int chosenPosition;
+
+	private MenuFile(Path path, MenuDefinition definition, ByteBuffer buffer, int chosenPosition) {
+		this.path = path;
+		this.definition = definition;
+		this.buffer = buffer;
+		this.chosenPosition = chosenPosition;
+	}
+
+	/**
+	 * Maps a binary menu file. The file can be deleted or replaced afterwards, but must not be truncated or modified in place while it is mapped.
+	 * @param path
+	 * @return the opened file
+	 * @throws IOException if the file can't be read or is not a valid binary menu file
+	 * @throws InvalidMemberException if the menu in the file breaks the menu rules
+	 */
+	public static MenuFile open(Path path) throws IOException {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginLoad();
+		ByteBuffer buffer;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException(path + " is larger than 2GB.");
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+
+		MenuFile ret;
+		try {
+			ret = read(path, buffer);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException(path + " is truncated or corrupt.", e);
+		}
+
+		if (metrics != null) {
+			metrics.recordLoad(start, event, ret.definition.getNumOptions());
+		}
+		return ret;
+	}
+
+	private static MenuFile read(Path path, ByteBuffer buffer) throws IOException {
+		ByteBuffer in = buffer.duplicate();
+
+		if (in.remaining() < 8 || in.getInt() != MAGIC) {
+			throw new IOException(path + " is not a binary menu file.");
+		}
+		short version = in.getShort();
+		if (version != VERSION) {
+			throw new IOException(path + " has unsupported version " + version + ".");
+		}
+		short flags = in.getShort();
+
+		int numOptions = in.getInt();
+		int exitOn = in.getInt();
+		if (numOptions < 0) {
+			throw new InvalidMemberException("The number of options is less than zero.");
+		}
+
+		String title = readText(path, in);
+		String exitText = readText(path, in);
+		String chosenText = readText(path, in);
+		String unchosenText = readText(path, in);
+
+		int tablePosition = in.position();
+		if (4L * numOptions + 4 > in.remaining()) {
+			throw corrupt(path);
+		}
+		int dataPosition = tablePosition + 4 * (numOptions + 1);
+		int dataLength = in.getInt(dataPosition - 4);
+		if (dataLength < 0) {
+			throw corrupt(path);
+		}
+
+		int chosenPosition = -1;
+
+		if ((flags & FLAG_CHOSEN) != 0) {
+			chosenPosition = dataPosition + dataLength;
+			if ((long) dataPosition + dataLength + 8L * ChosenSet.wordsFor(numOptions) > buffer.limit()) {
+				throw corrupt(path);
+			}
+		} else if ((long) dataPosition + dataLength > buffer.limit()) {
+			throw corrupt(path);
+		}
+
+		MappedOptions options = new MappedOptions(path, buffer, numOptions, tablePosition, dataPosition, dataLength);
+		MenuDefinition definition = new MenuDefinition(title, options, (flags & FLAG_EXIT_ALLOWED) != 0, exitOn, exitText, chosenText, unchosenText);
+
+		return new MenuFile(path, definition, buffer, chosenPosition);
+	}
+
+	/**
+	 * Writes a definition as a binary menu file, replacing the target atomically.
+	 * @param path
+	 * @param definition
+	 * @param chosen the chosen flags to store, or null to store none
+	 * @throws IOException if the file could not be written or the options are larger than 2GB
+	 */
+	public static void write(Path path, final MenuDefinition definition, final ChosenSet chosen) throws IOException {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginSave();
+		final int numOptions = definition.getNumOptions();
+
+		if (chosen != null && chosen.size() != numOptions) {
+			throw new InvalidMemberException("The number of options (" + numOptions + ") does not equal the size of the chosen set (" + chosen.size() + ").");
+		}
+
+		//The offsets table comes before the option data, so measure every option first
+		final int[] offsets = new int[numOptions + 1];
+		long offset = 0;
+		for (int i = 0; i < numOptions; i++) {
+			offsets[i] = (int) offset;
+			offset += utf8Length(option(definition, i));
+			if (offset > Integer.MAX_VALUE) {
+				throw new IOException("The options of " + path + " are larger than 2GB.");
+			}
+		}
+		offsets[numOptions] = (int) offset;
+
+		AtomicFile.write(path, new AtomicFile.Content() {
+			@Override
+			public void writeTo(OutputStream stream) throws IOException {
+				DataOutputStream out = new DataOutputStream(stream);
+				short flags = 0;
+
+				if (definition.isExitAllowed()) {
+					flags |= FLAG_EXIT_ALLOWED;
+				}
+				if (chosen != null) {
+					flags |= FLAG_CHOSEN;
+				}
+
+				out.writeInt(MAGIC);
+				out.writeShort(VERSION);
+				out.writeShort(flags);
+				out.writeInt(numOptions);
+				out.writeInt(definition.getExitOn());
+
+				writeText(out, definition.getTitle());
+				writeText(out, definition.getExitText());
+				writeText(out, definition.getChosenText());
+				writeText(out, definition.getUnchosenText());
+
+				for (int o : offsets) {
+					out.writeInt(o);
+				}
+				for (int i = 0; i < numOptions; i++) {
+					out.write(option(definition, i).getBytes(StandardCharsets.UTF_8));
+				}
+
+				if (chosen != null) {
+					for (int i = 0; i < chosen.wordCount(); i++) {
+						out.writeLong(chosen.getWord(i));
+					}
+				}
+				out.flush();
+			}
+		});
+
+		if (metrics != null) {
+			metrics.recordSave(start, event, numOptions);
+		}
+	}
+
+	/**
+	 * Writes a Menu as a binary menu file, replacing the target atomically.
+	 * @param path
+	 * @param menu
+	 * @param includeChosen whether to store the Menu's chosen flags
+	 * @throws IOException if the file could not be written or the options are larger than 2GB
+	 * @throws InvalidMemberException if the Menu is degenerate
+	 */
+	public static void write(Path path, Menu menu, boolean includeChosen) throws IOException {
+		menu.validateMembers();
+		write(path, new MenuDefinition(menu), includeChosen ? menu.chosen : null);
+	}
+
+	/**
+	 * Converts a JSON menu file into a binary menu file.
+	 * @param json
+	 * @param binary
+	 * @throws IOException
+	 */
+	public static void fromJson(Path json, Path binary) throws IOException {
+		Menu menu;
+
+		try (InputStream in = Files.newInputStream(json)) {
+			menu = Menu.loadFromStream(in);
+		}
+		write(binary, menu, false);
+	}
+
+	/**
+	 * Converts a binary menu file into a JSON menu file. The chosen flags are not part of the JSON format and are dropped.
+	 * @param binary
+	 * @param json
+	 * @throws IOException
+	 */
+	public static void toJson(Path binary, Path json) throws IOException {
+		Menu.saveToFile(json.toString(), open(binary).getDefinition().toMenu());
+	}
+
+	/**
+	 * @return the definition read from this file, decoding options on demand.
+	 */
+	public MenuDefinition getDefinition() {
+		return definition;
+	}
+
+	/**
+	 * @return whether the file stores chosen flags.
+	 */
+	public boolean hasChosen() {
+		return chosenPosition >= 0;
+	}
+
+	/**
+	 * @return a new set holding the stored chosen flags, or null if the file stores none.
+	 */
+	public ChosenSet getChosen() {
+		if (chosenPosition < 0) {
+			return null;
+		}
+
+		int numOptions = definition.getNumOptions();
+		long[] words = new long[ChosenSet.wordsFor(numOptions)];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = buffer.getLong(chosenPosition + 8 * i);
+		}
+		return new ChosenSet(numOptions, words);
+	}
+
+	/**
+	 * @return a new mutable {@link Menu} with the content and any chosen flags of this file.
+	 */
+	public Menu toMenu() {
+		Menu ret = definition.toMenu();
+		ChosenSet stored = getChosen();
+
+		if (stored != null) {
+			ret.adoptChosen(stored);
+		}
+		return ret;
+	}
+
+	/**
+	 * @return the path this file was opened from.
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	private static String option(MenuDefinition definition, int index) {
+		String option = definition.getOptionAt(index);
+
+		if (option == null) {
+			throw new InvalidMemberException("Option " + (index + 1) + " has no text.");
+		}
+		return option;
+	}
+
+	private static void writeText(DataOutputStream out, String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a length prefixed text of the header.
+	 * @throws IOException if the length is negative or runs past the end of the file
+	 */
+	private static String readText(Path path, ByteBuffer in) throws IOException {
+		int length = in.getInt();
+		if (length < 0 || length > in.remaining()) {
+			throw corrupt(path);
+		}
+
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return StringPool.canonical(new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	private static IOException corrupt(Path path) {
+		return new IOException(path + " is truncated or corrupt.");
+	}
+
+	/**
+	 * @return the number of bytes the String takes in UTF-8, counting unpaired surrogates as the single '?' byte getBytes replaces them with.
+	 */
+	private static int utf8Length(String s) {
+		int len = 0;
+
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				len += 1;
+			} else if (c < 0x800) {
+				len += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+				len += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				len += 1;
+			} else {
+				len += 3;
+			}
+		}
+		return len;
+	}
+
+	/**
+	 * Options decoded from the mapped file on every request.
+	 * <br>The data they are read from was checked to lie within the file on open, so only each option's own offsets are checked.
+	 */
+	private static final class MappedOptions implements OptionSource {
+
+		private final Path path;
+		private final ByteBuffer buffer;
+		private final int size;
+		private final int tablePosition;
+		private final int dataPosition;
+		private final int dataLength;
+
+		MappedOptions(Path path, ByteBuffer buffer, int size, int tablePosition, int dataPosition, int dataLength) {
+			this.path = path;
+			this.buffer = buffer;
+			this.size = size;
+			this.tablePosition = tablePosition;
+			this.dataPosition = dataPosition;
+			this.dataLength = dataLength;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * @throws UncheckedIOException if the option's offsets are out of order or outside the option data
+		 */
+		@Override
+		public String get(int index) {
+			if (index < 0 || index >= size) {
+				throw new ArrayIndexOutOfBoundsException(index);
+			}
+
+			int start = buffer.getInt(tablePosition + 4 * index);
+			int end = buffer.getInt(tablePosition + 4 * index + 4);
+			if (start < 0 || end < start || end > dataLength) {
+				throw new UncheckedIOException(corrupt(path));
+			}
+
+			byte[] bytes = new byte[end - start];
+
+			ByteBuffer in = buffer.duplicate();
+			in.position(dataPosition + start);
+			in.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
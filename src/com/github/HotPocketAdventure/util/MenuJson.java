@@ -0,0 +1,250 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParserFactory;
+
+import com.github.HotPocketAdventure.util.exceptions.InvalidMemberException;
+
+/**
+ * Reads and writes the JSON menu format with the event based {@link JsonParser} and {@link JsonGenerator}, so no document tree is ever built.
+ * <br>- Options are read straight into the array the Menu keeps, one String per option.
+ * <br>- Options are written one at a time through a buffer.
+ * <br>- Uses the same keys and defaults as the original tree based loader. Unknown keys are skipped.
+ * @author Michael Bradley
+ *
+ */
+final class MenuJson {
+
+	//Keys of the JSON menu format
+	static final String TITLE = "title";
+	static final String NUM_OPTIONS = "numOptions";
+	static final String OPTIONS = "options";
+	static final String EXIT_ALLOWED = "exitAllowed";
+	static final String EXIT_ON = "exitOn";
+	static final String EXIT_TEXT = "exitText";
+	static final String CHOSEN_TEXT = "chosenText";
+	static final String UNCHOSEN_TEXT = "unchosenText";
+
+	//The most options allocated before any are read, whatever numOptions says
+	private static final int MAX_INITIAL_OPTIONS = 1024;
+
+	private MenuJson() {
+	}
+
+	/**
+	 * Reads a menu document from the stream. Does not close the stream.
+	 * @param in
+	 * @return the {@link Menu}, validated
+	 * @throws JsonException if the stream is not a valid menu document or can't be read
+	 * @throws InvalidMemberException if numOptions is negative or the menu breaks the other menu rules
+	 */
+	static Menu read(InputStream in) {
+		String title = "";
+		int numOptions = 0;
+		boolean hasNumOptions = false;
+		String[] options = null;
+		int optionCount = 0;
+		boolean exitAllowed = false;
+		int exitOn = 0;
+		String exitText = "";
+		String chosenText = "";
+		String unchosenText = "";
+
+		JsonParser parser = Factories.PARSER.createParser(in);
+
+		if (!parser.hasNext() || parser.next() != Event.START_OBJECT) {
+			throw new JsonException("A menu document must be a JSON object.");
+		}
+
+		Event event;
+		while ((event = parser.next()) != Event.END_OBJECT) {
+			String key = parser.getString();
+			event = parser.next();
+
+			switch (key) {
+			case TITLE:
+				title = string(parser, event, title);
+				break;
+			case NUM_OPTIONS:
+				if (event == Event.VALUE_NUMBER) {
+					numOptions = parser.getInt();
+					hasNumOptions = true;
+					if (numOptions < 0) {
+						throw new InvalidMemberException("The number of options is less than zero.");
+					}
+				}
+				break;
+			case OPTIONS:
+				if (event != Event.START_ARRAY) {
+					skip(parser, event);
+					break;
+				}
+
+				//numOptions comes from the file, so only trust it up to a point and grow from there
+				options = new String[hasNumOptions ? Math.max(1, Math.min(numOptions, MAX_INITIAL_OPTIONS)) : 16];
+				optionCount = 0;
+				while ((event = parser.next()) != Event.END_ARRAY) {
+					if (event != Event.VALUE_STRING) {
+						throw new JsonException("Option " + (optionCount + 1) + " is not a string.");
+					}
+					if (optionCount == options.length) {
+						options = Arrays.copyOf(options, options.length * 2);
+					}
+					options[optionCount++] = parser.getString();
+				}
+				break;
+			case EXIT_ALLOWED:
+				exitAllowed = event == Event.VALUE_TRUE || (event != Event.VALUE_FALSE && exitAllowed);
+				break;
+			case EXIT_ON:
+				exitOn = event == Event.VALUE_NUMBER ? parser.getInt() : exitOn;
+				break;
+			case EXIT_TEXT:
+				exitText = string(parser, event, exitText);
+				break;
+			case CHOSEN_TEXT:
+				chosenText = string(parser, event, chosenText);
+				break;
+			case UNCHOSEN_TEXT:
+				unchosenText = string(parser, event, unchosenText);
+				break;
+			default:
+				skip(parser, event);
+			}
+		}
+
+		if (options == null) {
+			options = new String[0];
+		}
+		if (!hasNumOptions) {
+			numOptions = optionCount;
+		}
+
+		//Like the tree loader, only the first numOptions options are kept
+		int kept = Math.min(numOptions, optionCount);
+		if (kept != options.length) {
+			options = Arrays.copyOf(options, kept);
+		}
+
+		//Checked before the chosen set is sized from numOptions
+		if (kept != numOptions) {
+			throw new InvalidMemberException("The number of options (" + numOptions + ") does not equal the length of the options array (" + kept + ").");
+		}
+
+		return Menu.adopt(title, numOptions, options, exitAllowed, exitOn, exitText, chosenText, unchosenText);
+	}
+
+	/**
+	 * @return the value if the event is a string, otherwise the default.
+	 */
+	private static String string(JsonParser parser, Event event, String defaultValue) {
+		if (event == Event.VALUE_STRING) {
+			return parser.getString();
+		}
+
+		skip(parser, event);
+		return defaultValue;
+	}
+
+	/**
+	 * Skips the rest of the value that starts with the passed event.
+	 */
+	private static void skip(JsonParser parser, Event event) {
+		if (event != Event.START_OBJECT && event != Event.START_ARRAY) {
+			return;
+		}
+
+		int depth = 1;
+		while (depth > 0) {
+			event = parser.next();
+			if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+				depth++;
+			} else if (event == Event.END_OBJECT || event == Event.END_ARRAY) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * Writes a menu document to the stream. Flushes but does not close the stream.
+	 * @param out
+	 * @param menu
+	 * @throws JsonException if the stream can't be written
+	 */
+	static void write(OutputStream out, Menu menu) {
+		JsonGenerator generator = Factories.GENERATOR.createGenerator(out);
+
+		generator.writeStartObject();
+		writeString(generator, TITLE, menu.getTitle());
+		generator.write(NUM_OPTIONS, menu.getNumOptions());
+
+		generator.writeStartArray(OPTIONS);
+		for (int i = 0; i < menu.getNumOptions(); i++) {
+			generator.write(menu.getOptionAt(i));
+		}
+		generator.writeEnd();
+
+		generator.write(EXIT_ALLOWED, menu.isExitAllowed());
+		generator.write(EXIT_ON, menu.getExitOn());
+		writeString(generator, EXIT_TEXT, menu.getExitText());
+		writeString(generator, CHOSEN_TEXT, menu.getChosenText());
+		writeString(generator, UNCHOSEN_TEXT, menu.getUnchosenText());
+		generator.writeEnd();
+
+		generator.flush();
+	}
+
+	/**
+	 * Writes a menu document to a file through {@link AtomicFile}, so the target is replaced in one step.
+	 * @param target
+	 * @param menu
+	 * @throws FileNotFoundException if the target's directory does not exist or can't be written to
+	 * @throws JsonException if the file could not be written
+	 */
+	static void writeFile(Path target, final Menu menu) throws FileNotFoundException {
+		try {
+			AtomicFile.write(target, new AtomicFile.Content() {
+				@Override
+				public void writeTo(OutputStream out) {
+					write(out, menu);
+				}
+			});
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new JsonException("Could not write " + target, e);
+		}
+	}
+
+	/**
+	 * Writes the pair, using a JSON null for a null value.
+	 */
+	private static void writeString(JsonGenerator generator, String key, String value) {
+		if (value == null) {
+			generator.writeNull(key);
+		} else {
+			generator.write(key, value);
+		}
+	}
+
+	/**
+	 * Holds the factories so the JSON provider is only looked up once, instead of on every read and write.
+	 */
+	private static class Factories {
+		static final JsonParserFactory PARSER = Json.createParserFactory(Collections.<String, Object>emptyMap());
+		static final JsonGeneratorFactory GENERATOR = Json.createGeneratorFactory(Collections.<String, Object>emptyMap());
+	}
+}
@@ -0,0 +1,164 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.json.JsonException;
+
+import com.github.HotPocketAdventure.util.exceptions.InvalidMemberException;
+
+/**
+ * Loads and validates every menu under a directory in parallel on a {@link ForkJoinPool}.
+ * <br>- Files ending in {@link #JSON_EXTENSION} are loaded as JSON, files ending in {@link MenuFile#EXTENSION} as binary menu files, keeping any chosen flags they store. Other files are ignored.
+ * <br>- The directory is walked first, then the files are split in halves until each task loads one file, so idle workers steal the remaining halves.
+ * <br>- A file that can't be read, is not a valid document, breaks the menu rules or fails any other way is recorded in the {@link LoadReport} and the run carries on.
+ * @author Michael Bradley
+ *
+ */
+public final class MenuLoader {
+
+	public static final String JSON_EXTENSION = ".json";
+
+	private MenuLoader() {
+	}
+
+	/**
+	 * Loads every menu under the directory on the common fork-join pool.
+	 * @param directory
+	 * @return the menus loaded and the errors of the files that were not
+	 * @throws IOException if the directory does not exist or is not a directory
+	 */
+	public static LoadReport loadDirectory(Path directory) throws IOException {
+		return loadDirectory(directory, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Loads every menu under the directory, including subdirectories, on the passed pool.
+	 * @param directory
+	 * @param pool
+	 * @return the menus loaded and the errors of the files that were not, both in path order
+	 * @throws IOException if the directory does not exist or is not a directory
+	 */
+	public static LoadReport loadDirectory(Path directory, ForkJoinPool pool) throws IOException {
+		if (!Files.isDirectory(directory)) {
+			throw new NotDirectoryException(directory.toString());
+		}
+
+		final List<Path> files = new ArrayList<>();
+		final Map<Path, Exception> unreadable = new LinkedHashMap<>();
+
+		Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+				if (attributes.isRegularFile() && isMenuFile(file)) {
+					files.add(file);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				unreadable.put(file, e);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		Collections.sort(files);
+
+		//Each task writes only its own slots, so the results need no locking
+		Path[] paths = files.toArray(new Path[files.size()]);
+		Menu[] menus = new Menu[paths.length];
+		Exception[] errors = new Exception[paths.length];
+
+		pool.invoke(new LoadTask(paths, menus, errors, 0, paths.length));
+
+		Map<Path, Menu> loaded = new LinkedHashMap<>();
+		Map<Path, Exception> failed = new LinkedHashMap<>(unreadable);
+		for (int i = 0; i < paths.length; i++) {
+			if (menus[i] != null) {
+				loaded.put(paths[i], menus[i]);
+			} else {
+				failed.put(paths[i], errors[i]);
+			}
+		}
+		return new LoadReport(loaded, failed);
+	}
+
+	/**
+	 * @param file
+	 * @return whether the file's name ends in one of the extensions the loader reads.
+	 */
+	public static boolean isMenuFile(Path file) {
+		String name = file.getFileName().toString();
+		return name.endsWith(JSON_EXTENSION) || name.endsWith(MenuFile.EXTENSION);
+	}
+
+	/**
+	 * Loads and validates one file.
+	 * @param path
+	 * @return the menu
+	 * @throws IOException if the file could not be read
+	 * @throws JsonException if the file is not a valid menu document
+	 * @throws InvalidMemberException if the menu in the file breaks the menu rules
+	 */
+	static Menu load(Path path) throws IOException {
+		if (path.getFileName().toString().endsWith(MenuFile.EXTENSION)) {
+			return MenuFile.open(path).toMenu();
+		}
+
+		try (InputStream in = Files.newInputStream(path)) {
+			return Menu.loadFromStream(in);
+		}
+	}
+
+	/**
+	 * Loads the files in [from, to), splitting the range in half until it holds one file.
+	 */
+	private static final class LoadTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Path[] paths;
+		private final Menu[] menus;
+		private final Exception[] errors;
+		private final int from;
+		private final int to;
+
+		LoadTask(Path[] paths, Menu[] menus, Exception[] errors, int from, int to) {
+			this.paths = paths;
+			this.menus = menus;
+			this.errors = errors;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new LoadTask(paths, menus, errors, from, middle), new LoadTask(paths, menus, errors, middle, to));
+				return;
+			}
+
+			for (int i = from; i < to; i++) {
+				try {
+					menus[i] = load(paths[i]);
+				} catch (IOException | RuntimeException e) {
+					//Any failure belongs to this file alone, so the other files still load
+					errors[i] = e;
+				}
+			}
+		}
+	}
+}
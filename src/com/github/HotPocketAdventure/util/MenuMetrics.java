@@ -0,0 +1,172 @@
+package com.github.HotPocketAdventure.util;
+
+/**
+ * Optional latency measurements of menu rendering, think time and loading and saving.
+ * <br>- Off by default. While off, each measured operation costs one volatile read.
+ * <br>- While on, latencies are recorded in {@link LatencyHistogram}s and, if asked for and the JVM has it, committed as JDK Flight Recorder events.
+ * <br>- Render time covers building menu text that is not cached. Think time runs from asking for a choice until a valid one is entered.
+ * Load and save time cover reading or writing and validating a whole document.
+ * <br>- Measurements are global and thread safe.
+ * <br>- Each measured operation reads the start time and begins its event before the work, then records both once the work is done, so an event's duration is the operation's latency.
+ * @author Michael Bradley
+ *
+ */
+public final class MenuMetrics {
+
+	private static final boolean FLIGHT_RECORDER = hasFlightRecorder();
+
+	private static volatile MenuMetrics current;
+
+	private final boolean events;
+
+	private final LatencyHistogram render;
+	private final LatencyHistogram thinkTime;
+	private final LatencyHistogram load;
+	private final LatencyHistogram save;
+
+	private MenuMetrics(boolean events) {
+		this.events = events;
+
+		render = new LatencyHistogram();
+		thinkTime = new LatencyHistogram();
+		load = new LatencyHistogram();
+		save = new LatencyHistogram();
+	}
+
+	/**
+	 * Starts measuring with new, empty histograms.
+	 * @param flightRecorder whether to also commit Flight Recorder events. Ignored if the JVM does not have Flight Recorder.
+	 * @return the measurements that are now being recorded.
+	 */
+	public static MenuMetrics enable(boolean flightRecorder) {
+		MenuMetrics ret = new MenuMetrics(flightRecorder && FLIGHT_RECORDER);
+		current = ret;
+		return ret;
+	}
+
+	/**
+	 * Stops measuring. Measurements already taken stay readable from the object enable returned.
+	 */
+	public static void disable() {
+		current = null;
+	}
+
+	/**
+	 * @return the measurements being recorded or null if measuring is off.
+	 */
+	public static MenuMetrics get() {
+		return current;
+	}
+
+	/**
+	 * @return whether the running JVM has Flight Recorder.
+	 */
+	public static boolean isFlightRecorderAvailable() {
+		return FLIGHT_RECORDER;
+	}
+
+	/**
+	 * @return whether these measurements commit Flight Recorder events.
+	 */
+	public boolean isRecordingEvents() {
+		return events;
+	}
+
+	/**
+	 * @return the latencies of building menu text.
+	 */
+	public LatencyHistogram getRender() {
+		return render;
+	}
+
+	/**
+	 * @return the latencies from asking for a choice until a valid one was entered.
+	 */
+	public LatencyHistogram getThinkTime() {
+		return thinkTime;
+	}
+
+	/**
+	 * @return the latencies of loading menu documents.
+	 */
+	public LatencyHistogram getLoad() {
+		return load;
+	}
+
+	/**
+	 * @return the latencies of saving menu documents.
+	 */
+	public LatencyHistogram getSave() {
+		return save;
+	}
+
+	@Override
+	public String toString() {
+		return "render: " + render + "\nthink time: " + thinkTime + "\nload: " + load + "\nsave: " + save;
+	}
+
+	/**
+	 * @return the begun Flight Recorder event to pass to recordRender or null if none is recorded.
+	 */
+	Object beginRender() {
+		return events ? MenuEvents.beginRender() : null;
+	}
+
+	void recordRender(long start, Object event, int numOptions) {
+		render.record(System.nanoTime() - start);
+		if (event != null) {
+			MenuEvents.render(event, numOptions);
+		}
+	}
+
+	/**
+	 * @return the begun Flight Recorder event to pass to recordThinkTime or null if none is recorded.
+	 */
+	Object beginThinkTime() {
+		return events ? MenuEvents.beginThinkTime() : null;
+	}
+
+	void recordThinkTime(long start, Object event, int choice) {
+		thinkTime.record(System.nanoTime() - start);
+		if (event != null) {
+			MenuEvents.thinkTime(event, choice);
+		}
+	}
+
+	/**
+	 * @return the begun Flight Recorder event to pass to recordLoad or null if none is recorded.
+	 */
+	Object beginLoad() {
+		return events ? MenuEvents.beginLoad() : null;
+	}
+
+	void recordLoad(long start, Object event, int numOptions) {
+		load.record(System.nanoTime() - start);
+		if (event != null) {
+			MenuEvents.load(event, numOptions);
+		}
+	}
+
+	/**
+	 * @return the begun Flight Recorder event to pass to recordSave or null if none is recorded.
+	 */
+	Object beginSave() {
+		return events ? MenuEvents.beginSave() : null;
+	}
+
+	void recordSave(long start, Object event, int numOptions) {
+		save.record(System.nanoTime() - start);
+		if (event != null) {
+			MenuEvents.save(event, numOptions);
+		}
+	}
+
+	private static boolean hasFlightRecorder() {
+		try {
+			Class.forName("jdk.jfr.FlightRecorder");
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+}
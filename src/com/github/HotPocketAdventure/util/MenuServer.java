@@ -0,0 +1,240 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves one {@link MenuDefinition} to many connected clients at once.
+ * <br>- Every connection runs its own display/getInput loop in its own {@link MenuSession} until it chooses the exit option or disconnects.
+ * <br>- Sessions share the definition, so each connection only costs its choice state.
+ * <br>- Sessions run on virtual threads when the JVM supports them, so idle connections only cost a parked thread and small buffers.
+ * <br>- Any bound {@link ServerSocketChannel} can be served, including Unix domain socket channels on JVMs that provide them.
+ * @author Michael Bradley
+ *
+ */
+public class MenuServer implements Runnable, Closeable {
+
+	private static final int SESSION_BUFFER_SIZE = 512;
+
+	//Bounds of the wait after a failed accept, doubled on each failure in a row
+	private static final long MIN_ACCEPT_BACKOFF = 10;
+	private static final long MAX_ACCEPT_BACKOFF = 1000;
+
+	private final ServerSocketChannel server;
+	private final MenuDefinition definition;
+	private final boolean trackChosen;
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+	private final AtomicInteger activeSessions;
+
+	private volatile SessionListener listener;
+
+	/**
+	 * Called by a session's thread after every valid choice made by its client.
+	 * <br>An exception thrown by the listener is passed to the thread's uncaught exception handler and the session carries on.
+	 */
+	public interface SessionListener {
+		/**
+		 * @param session the connection's own session, holding its choice state
+		 */
+		void choiceMade(MenuSession session);
+	}
+
+	/**
+	 * Serves the definition on an already bound channel, running sessions on virtual threads when available.
+	 * @param server
+	 * @param definition
+	 * @param trackChosen whether sessions display and update the (un)chosen texts
+	 */
+	public MenuServer(ServerSocketChannel server, MenuDefinition definition, boolean trackChosen) {
+		this(server, definition, trackChosen, MenuExecutors.newPerTaskExecutor(), true);
+	}
+
+	/**
+	 * Serves the definition on an already bound channel, running sessions on the given executor.
+	 * <br>The executor is not shut down when the server is closed.
+	 * @param server
+	 * @param definition
+	 * @param trackChosen whether sessions display and update the (un)chosen texts
+	 * @param executor
+	 */
+	public MenuServer(ServerSocketChannel server, MenuDefinition definition, boolean trackChosen, ExecutorService executor) {
+		this(server, definition, trackChosen, executor, false);
+	}
+
+	private MenuServer(ServerSocketChannel server, MenuDefinition definition, boolean trackChosen, ExecutorService executor, boolean ownsExecutor) {
+		this.server = server;
+		this.definition = definition;
+		this.trackChosen = trackChosen;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		activeSessions = new AtomicInteger();
+	}
+
+	/**
+	 * Opens a server for the definition on the loopback address.
+	 * @param port the port to listen on, 0 picks a free port
+	 * @param definition
+	 * @param trackChosen whether sessions display and update the (un)chosen texts
+	 * @return the server, not yet accepting connections
+	 * @throws IOException if the port could not be bound
+	 */
+	public static MenuServer openLoopback(int port, MenuDefinition definition, boolean trackChosen) throws IOException {
+		ServerSocketChannel channel = ServerSocketChannel.open();
+
+		try {
+			channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+
+		return new MenuServer(channel, definition, trackChosen);
+	}
+
+	/**
+	 * Starts accepting connections on the session executor and returns immediately.
+	 * @return a reference to this MenuServer object.
+	 */
+	public MenuServer start() {
+		executor.execute(this);
+		return this;
+	}
+
+	/**
+	 * Accepts connections until the server is closed or the accepting thread is interrupted, handing each one to a new session.
+	 * <br>After a failed accept, such as when the process has run out of file descriptors, waits before trying again,
+	 * from {@value #MIN_ACCEPT_BACKOFF}ms doubling up to {@value #MAX_ACCEPT_BACKOFF}ms while failures continue.
+	 */
+	@Override
+	public void run() {
+		long backoff = 0;
+
+		while (server.isOpen()) {
+			final SocketChannel client;
+
+			try {
+				client = server.accept();
+				backoff = 0;
+			} catch (ClosedChannelException e) {
+				return;
+			} catch (IOException e) {
+				backoff = backoff == 0 ? MIN_ACCEPT_BACKOFF : Math.min(backoff * 2, MAX_ACCEPT_BACKOFF);
+				try {
+					Thread.sleep(backoff);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				continue;
+			}
+
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					serve(client);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Runs a client's menu loop on the calling thread until it exits or disconnects.
+	 * @param client
+	 */
+	protected void serve(SocketChannel client) {
+		activeSessions.incrementAndGet();
+
+		try (MenuConsole console = new MenuConsole(Channels.newInputStream(client), Channels.newOutputStream(client), SESSION_BUFFER_SIZE)) {
+			MenuSession session = definition.newSession().setConsole(console);
+
+			do {
+				session.display(trackChosen).getInput(trackChosen);
+
+				notifyListener(session);
+			} while (!session.didChooseExit());
+		} catch (NoSuchElementException | IOException e) {
+			//The client disconnected
+		} finally {
+			activeSessions.decrementAndGet();
+			try {
+				client.close();
+			} catch (IOException e) {
+				//Already closed
+			}
+		}
+	}
+
+	/**
+	 * Calls the listener, handing anything it throws to the thread's uncaught exception handler so the session keeps running.
+	 * @param session
+	 */
+	private void notifyListener(MenuSession session) {
+		SessionListener l = listener;
+		if (l == null) {
+			return;
+		}
+
+		try {
+			l.choiceMade(session);
+		} catch (RuntimeException e) {
+			Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+		}
+	}
+
+	/**
+	 * Stops accepting connections. Sessions that are already running continue until their clients leave.
+	 * <br>Shuts down the session executor if the server created it.
+	 */
+	@Override
+	public void close() throws IOException {
+		server.close();
+
+		if (ownsExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @return the address the server is listening on.
+	 * @throws IOException
+	 */
+	public SocketAddress getLocalAddress() throws IOException {
+		return server.getLocalAddress();
+	}
+
+	/**
+	 * @return the number of connected clients.
+	 */
+	public int getActiveSessions() {
+		return activeSessions.get();
+	}
+
+	/**
+	 * @return the definition served to every client.
+	 */
+	public MenuDefinition getDefinition() {
+		return definition;
+	}
+
+	/**
+	 * Sets the listener called after every valid choice. Passing a null reference removes the listener.
+	 * @param listener
+	 * @return a reference to this MenuServer object.
+	 */
+	public MenuServer setListener(SessionListener listener) {
+		this.listener = listener;
+		return this;
+	}
+}
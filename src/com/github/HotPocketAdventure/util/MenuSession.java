@@ -0,0 +1,580 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.NoSuchElementException;
+
+/**
+ * One user's pass through a shared {@link MenuDefinition}.
+ * <br>- Holds only the choice state: the most recent and previous choices and the chosen flags.
+ * <br>- The chosen flags are not allocated until an option is first marked as chosen.
+ * <br>- Can display the options a page at a time, in which case only the options on the current page are read from the definition.
+ * While paging, {@link #getInput(boolean) getInput} also accepts the page navigation words.
+ * Sessions of a definition whose options are read on demand, such as a {@link MenuFile}, start paged with {@link #DEFAULT_PAGE_SIZE} options per page.
+ * <br>- Can narrow the displayed options to those matching a {@link #search(String) search}. getInput treats a line starting with {@link #SEARCH_PREFIX} as a search.
+ * <br>- Counts its choices and invalid inputs in the definition's {@link MenuDefinition#getStatistics() statistics} if they have been turned on.
+ * <br>- Not thread safe. Each user should have their own session, the definition can be shared freely.
+ * @author Michael Bradley
+ *
+ */
+public class MenuSession {
+
+	//Page navigation words accepted by getInput while paging
+	public static final String NEXT_PAGE = "n";
+	public static final String PREVIOUS_PAGE = "p";
+	public static final String GO_TO_PAGE = "g";
+
+	//Starts a line that getInput treats as a search. The prefix alone shows every option again.
+	public static final char SEARCH_PREFIX = '/';
+
+	public static final int DEFAULT_SEARCH_LIMIT = 100;
+
+	//The page size of sessions of definitions that are not held in memory
+	public static final int DEFAULT_PAGE_SIZE = 20;
+
+	private final MenuDefinition definition;
+
+	private int choice;
+	private int lastChoice;
+	private ChosenSet chosen;
+
+	private MenuConsole console;
+
+	private int pageSize;
+	private int page;
+	private boolean showingChosen;
+
+	private int searchLimit;
+	private String query;
+	private int[] matches;
+
+	//Reused to render menus that are not cached by the definition, null until the first
+	private StringBuilder text;
+
+	/**
+	 * Creates a session with nothing chosen that uses the {@link MenuConsole#standard() standard} console.
+	 * @param definition
+	 */
+	public MenuSession(MenuDefinition definition) {
+		this.definition = definition;
+		choice = -1;
+		lastChoice = -1;
+		chosen = null;
+		console = MenuConsole.standard();
+
+		pageSize = definition.isInMemory() ? 0 : DEFAULT_PAGE_SIZE;
+		page = 0;
+		showingChosen = false;
+
+		searchLimit = DEFAULT_SEARCH_LIMIT;
+		query = null;
+		matches = null;
+	}
+
+	/**
+	 * Outputs the menu options to the console's output with no (un)chosen texts
+	 * @return a reference to this MenuSession object
+	 */
+	public MenuSession display() {
+		return display(false);
+	}
+
+	/**
+	 * Outputs the menu options to the console's output
+	 * <br>If showChosen is true, adds the (un)chosen texts to each choice.
+	 * <br>If the console has an {@link AnsiRenderer}, only the lines that changed since the last display are redrawn.
+	 * <br>The menu is rendered in full before it is printed, so the console's output is written and flushed once.
+	 * @param showChosen
+	 * @return a reference to this MenuSession object
+	 */
+	public MenuSession display(boolean showChosen) {
+		PrintStream out = console.getOutput();
+
+		AnsiRenderer renderer = console.getRenderer();
+
+		showingChosen = showChosen;
+		if (renderer == null) {
+			out.println(toString(showChosen));
+		} else {
+			renderer.draw(toString(showChosen), out);
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the menu choice from the console's input.
+	 * <br>Prompts for input as long as the value is either out of range or invalid.
+	 * <br>Does not change the chosen flags.
+	 * @return a reference to this MenuSession object
+	 * @throws NoSuchElementException if the input ends before a valid choice is entered
+	 */
+	public MenuSession getInput() {
+		return getInput(false);
+	}
+
+	/**
+	 * Gets the menu choice from the console's input.
+	 * <br>Prompts for input as long as the value is either out of range or invalid.
+	 * <br>While paging, {@link #NEXT_PAGE}, {@link #PREVIOUS_PAGE} and {@link #GO_TO_PAGE} followed by a page number change the page and display it again.
+	 * <br>A line starting with {@link #SEARCH_PREFIX} searches for the rest of the line and displays the matches.
+	 * <br>If changeChosen is true, the chosen flag for that choice will be set.
+	 * @param changeChosen
+	 * @return a reference to this MenuSession object
+	 * @throws NoSuchElementException if the input ends before a valid choice is entered
+	 */
+	public MenuSession getInput(boolean changeChosen) {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginThinkTime();
+		ChoiceReader reader = console.getReader();
+		ChoiceStatistics statistics = definition.statistics();
+		boolean valid = false;
+		int c = -1;
+
+		do {
+			console.prompt();
+			int token = reader.next();
+
+			if (token == ChoiceReader.END) {
+				throw new NoSuchElementException("The input ended before a valid choice was entered.");
+			} else if (token == ChoiceReader.INTEGER) {
+				c = reader.getValue();
+				valid = definition.isValidOption(c);
+			} else if (reader.startsWith(SEARCH_PREFIX)) {
+				search(reader.lineFromToken().substring(1));
+				display(showingChosen);
+				continue;
+			} else if (pageSize > 0 && navigate(reader)) {
+				display(showingChosen);
+				continue;
+			}
+
+			if (!valid && statistics != null) {
+				statistics.recordInvalid();
+			}
+		} while (!valid);
+
+		if (metrics != null) {
+			metrics.recordThinkTime(start, event, c);
+		}
+		lastChoice = choice;
+		choice = c;
+
+		if (choice == definition.getExitOn()) {
+			if (statistics != null) {
+				statistics.recordExit();
+			}
+		} else {
+			if (statistics != null) {
+				statistics.recordChoice(choice);
+			}
+			if (changeChosen) {
+				setChosenAt(choice - 1, true);
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Handles a page navigation word read by getInput.
+	 * @param reader
+	 * @return whether the token was a navigation word that changed the page.
+	 */
+	private boolean navigate(ChoiceReader reader) {
+		if (reader.isWord(NEXT_PAGE)) {
+			nextPage();
+		} else if (reader.isWord(PREVIOUS_PAGE)) {
+			previousPage();
+		} else if (reader.isWord(GO_TO_PAGE)) {
+			//The page number may follow on the same line, only ask for it if it doesn't
+			if (reader.isEndOfLine()) {
+				console.prompt("Page (1-" + getNumPages() + "): ");
+			}
+			int token = reader.next();
+			if (token == ChoiceReader.END) {
+				throw new NoSuchElementException("The input ended before a valid choice was entered.");
+			} else if (token != ChoiceReader.INTEGER) {
+				return false;
+			}
+			setPage(reader.getValue() - 1);
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the menu straight into the passed {@link Appendable}.
+	 * <br>While searching, only the matching options are written, followed by a line with the number of matches.
+	 * <br>While paging, only the current page is written, followed by a line with the page number and the navigation words.
+	 * <br>If showChosen is true, adds the (un)chosen texts to each choice.
+	 * @param out
+	 * @param showChosen
+	 * @return a reference to this MenuSession object
+	 * @throws IOException if the Appendable throws one
+	 */
+	public MenuSession renderTo(Appendable out, boolean showChosen) throws IOException {
+		MenuMetrics metrics = MenuMetrics.get();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object event = metrics == null ? null : metrics.beginRender();
+
+		int written = write(out, showChosen);
+		if (metrics != null) {
+			metrics.recordRender(start, event, written);
+		}
+		return this;
+	}
+
+	/**
+	 * @return the number of options written.
+	 */
+	private int write(Appendable out, boolean showChosen) throws IOException {
+		if (pageSize == 0 && matches == null) {
+			definition.write(out, chosen, showChosen);
+			return definition.getNumOptions();
+		}
+
+		int from = page * pageSize;
+		int to = pageSize == 0 ? getNumDisplayed() : (int) Math.min((long) from + pageSize, getNumDisplayed());
+
+		if (matches == null) {
+			definition.write(out, chosen, showChosen, from, to);
+		} else {
+			definition.write(out, chosen, showChosen, matches, from, to);
+
+			MenuText.appendInt(out, matches.length);
+			out.append(matches.length == 1 ? " match for \"" : " matches for \"").append(query).append("\" - ").append(SEARCH_PREFIX).append(": show all options\n");
+		}
+
+		if (pageSize == 0) {
+			return to - from;
+		}
+
+		out.append("Page ");
+		MenuText.appendInt(out, page + 1);
+		out.append(" of ");
+		MenuText.appendInt(out, getNumPages());
+		out.append(" - ").append(NEXT_PAGE).append(": next, ").append(PREVIOUS_PAGE).append(": previous, ").append(GO_TO_PAGE).append(" #: go to page\n");
+		return to - from;
+	}
+
+	/**
+	 * Without paging or a search, every option is read.
+	 * @param showChosen if true outputs choice tracking text and leaves them out otherwise.
+	 * @return The menu as a String, including all title, all options, choice tracking and exit option if applicable.
+	 */
+	public String toString(boolean showChosen) {
+		//Only in-memory definitions keep their text, anything else is rendered into this session's String
+		if (!showChosen && pageSize == 0 && matches == null && definition.isInMemory()) {
+			return definition.toString();
+		}
+
+		if (text == null) {
+			text = new StringBuilder();
+		}
+		text.setLength(0);
+
+		try {
+			renderTo(text, showChosen);
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * This method does the same thing as {@link #toString(boolean) toString(false)}
+	 * @return The menu as a String, including all title, all options and exit option if applicable.
+	 */
+	@Override
+	public String toString() {
+		return toString(false);
+	}
+
+	/**
+	 * Clears the choices and chosen flags so the session can be reused.
+	 * @return a reference to this MenuSession object
+	 */
+	public MenuSession reset() {
+		choice = -1;
+		lastChoice = -1;
+		chosen = null;
+		return this;
+	}
+
+
+	//-- Convenience --\\
+	/**
+	 * @return whether the most recent choice was the exit option.
+	 */
+	public boolean didChooseExit() {
+		return choice == definition.getExitOn();
+	}
+
+	/**
+	 * @return whether the most recent choice was the same as the previous choice.
+	 */
+	public boolean didChooseSame() {
+		return choice == lastChoice;
+	}
+
+
+	//-- Accessors and Mutators --\\
+	/**
+	 * @return the definition this session displays.
+	 */
+	public MenuDefinition getDefinition() {
+		return definition;
+	}
+
+	/**
+	 * @return the console this session is displayed on and reads choices from.
+	 */
+	public MenuConsole getConsole() {
+		return console;
+	}
+
+	/**
+	 * Sets the console this session is displayed on and reads choices from. Passing a null reference to this method will set the {@link MenuConsole#standard() standard} console.
+	 * @param console
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession setConsole(MenuConsole console) {
+		this.console = console == null ? MenuConsole.standard() : console;
+		return this;
+	}
+
+	/**
+	 * @return the number of options displayed per page or 0 if all options are displayed at once.
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Sets the number of options displayed per page and returns to the first page.
+	 * <br>Passing 0 to this method turns paging off and displays all options at once.
+	 * @param size
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession setPageSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("The page size (" + size + ") is less than zero.");
+		}
+
+		pageSize = size;
+		page = 0;
+		return this;
+	}
+
+	/**
+	 * @return the number of pages, 1 if paging is off.
+	 */
+	public int getNumPages() {
+		int numDisplayed = getNumDisplayed();
+
+		if (pageSize == 0 || numDisplayed == 0) {
+			return 1;
+		}
+		return (int) ((numDisplayed + (long) pageSize - 1) / pageSize);
+	}
+
+	/**
+	 * @return the number of options displayed across all pages, the number of matches while searching.
+	 */
+	private int getNumDisplayed() {
+		return matches == null ? definition.getNumOptions() : matches.length;
+	}
+
+	/**
+	 * Note: page will be one less than the displayed page number.
+	 * @return the current page.
+	 */
+	public int getPage() {
+		return page;
+	}
+
+	/**
+	 * Moves to the page, clamped to the range of pages.
+	 * <br>Note: page will be one less than the displayed page number.
+	 * @param page
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession setPage(int page) {
+		this.page = Math.max(0, Math.min(page, getNumPages() - 1));
+		return this;
+	}
+
+	/**
+	 * Moves to the next page if there is one.
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession nextPage() {
+		return setPage(page + 1);
+	}
+
+	/**
+	 * Moves to the previous page if there is one.
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession previousPage() {
+		return setPage(page - 1);
+	}
+
+	/**
+	 * Narrows the displayed options to those matching the query, best match first, and returns to the first page.
+	 * <br>See {@link OptionIndex#search(String, int)} for how matches are ranked. Passing a blank query or null to this method shows every option again.
+	 * @param query
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession search(String query) {
+		String q = query == null ? "" : query.trim();
+
+		if (q.isEmpty()) {
+			return clearSearch();
+		}
+
+		this.query = q;
+		matches = definition.search(q, searchLimit);
+		page = 0;
+		return this;
+	}
+
+	/**
+	 * Shows every option again and returns to the first page.
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession clearSearch() {
+		query = null;
+		matches = null;
+		page = 0;
+		return this;
+	}
+
+	/**
+	 * @return the current search or null if every option is displayed.
+	 */
+	public String getQuery() {
+		return query;
+	}
+
+	/**
+	 * @return a copy of the option numbers matching the current search, best first, or null if every option is displayed.
+	 */
+	public int[] getMatches() {
+		return matches == null ? null : matches.clone();
+	}
+
+	/**
+	 * @return the largest number of matches a search displays.
+	 */
+	public int getSearchLimit() {
+		return searchLimit;
+	}
+
+	/**
+	 * Sets the largest number of matches a search displays. Applies from the next search.
+	 * @param limit
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession setSearchLimit(int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("The search limit (" + limit + ") must be greater than zero.");
+		}
+
+		searchLimit = limit;
+		return this;
+	}
+
+	/**
+	 * @return the most recent choice.
+	 */
+	public int getChoice() {
+		return choice;
+	}
+
+	/**
+	 * @return the previous choice.
+	 */
+	public int getLastChoice() {
+		return lastChoice;
+	}
+
+	/**
+	 * Note: index will be one less than the displayed option number.
+	 * @param index
+	 * @return whether the specified option has been chosen.
+	 */
+	public boolean isChosenAt(int index) {
+		if (chosen == null) {
+			if (index < 0 || index >= definition.getNumOptions()) {
+				throw new ArrayIndexOutOfBoundsException(index);
+			}
+			return false;
+		}
+		return chosen.get(index);
+	}
+
+	/**
+	 * Sets whether the option has been chosen at the specified index.
+	 * <br>Note: index will be one less than the displayed option number.
+	 * @param index
+	 * @param picked
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession setChosenAt(int index, boolean picked) {
+		if (chosen == null) {
+			if (!picked && index >= 0 && index < definition.getNumOptions()) {
+				return this;
+			}
+			chosen = new ChosenSet(definition.getNumOptions());
+		}
+		chosen.set(index, picked);
+		return this;
+	}
+
+	/**
+	 * @return a copy of the chosen flags as an array of booleans.
+	 */
+	public boolean[] getChosen() {
+		return chosen == null ? new boolean[definition.getNumOptions()] : chosen.toArray();
+	}
+
+	/**
+	 * @return whether all options have been chosen at least once.
+	 */
+	public boolean isComplete() {
+		return chosen == null ? definition.getNumOptions() == 0 : chosen.isComplete();
+	}
+
+	/**
+	 * Sets all of the chosen flags to the passed value.
+	 * @param complete
+	 * @return a reference to this MenuSession object.
+	 */
+	public MenuSession setComplete(boolean complete) {
+		if (chosen == null) {
+			if (!complete) {
+				return this;
+			}
+			chosen = new ChosenSet(definition.getNumOptions());
+		}
+		chosen.setAll(complete);
+		return this;
+	}
+
+	/**
+	 * @return the number of options that have been chosen.
+	 */
+	public int getNumChosen() {
+		return chosen == null ? 0 : chosen.count();
+	}
+
+	/**
+	 * @return the number of options that have not been chosen.
+	 */
+	public int getNumUnchosen() {
+		return definition.getNumOptions() - getNumChosen();
+	}
+}
@@ -0,0 +1,92 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.IOException;
+
+/**
+ * Writes the pieces of a menu's text layout so every kind of menu displays the same way.
+ * @author Michael Bradley
+ *
+ */
+final class MenuText {
+
+	private MenuText() {
+	}
+
+	/**
+	 * Writes the title followed by a line the length of the title, or nothing if the title is empty.
+	 * @param out
+	 * @param title
+	 * @throws IOException
+	 */
+	static void writeTitle(Appendable out, String title) throws IOException {
+		out.append(title);
+
+		//Add a line the length of the title underneath the title
+		if (!title.equals("")) {
+			out.append('\n');
+			for (int i = 0; i < title.length(); i++) {
+				out.append('-');
+			}
+			out.append('\n');
+		}
+	}
+
+	/**
+	 * Writes one option line.
+	 * @param out
+	 * @param number the displayed option number
+	 * @param text
+	 * @param showChosen whether to add the (un)chosen text
+	 * @param picked whether the option has been chosen
+	 * @param chosenText
+	 * @param unchosenText
+	 * @throws IOException
+	 */
+	static void writeOption(Appendable out, int number, String text, boolean showChosen, boolean picked, String chosenText, String unchosenText) throws IOException {
+		appendInt(out, number);
+		out.append(". ").append(text);
+		if (showChosen) {
+			out.append(" - ").append(picked ? chosenText : unchosenText);
+		}
+		out.append('\n');
+	}
+
+	/**
+	 * Writes the exit option line if exiting is allowed.
+	 * @param out
+	 * @param exitAllowed
+	 * @param exitOn
+	 * @param exitText
+	 * @throws IOException
+	 */
+	static void writeExit(Appendable out, boolean exitAllowed, int exitOn, String exitText) throws IOException {
+		if (exitAllowed) {
+			appendInt(out, exitOn);
+			out.append(". ").append(exitText).append('\n');
+		}
+	}
+
+	/**
+	 * Appends the decimal digits of a number one char at a time so no String is created for it.
+	 * @param out
+	 * @param value
+	 * @throws IOException
+	 */
+	static void appendInt(Appendable out, int value) throws IOException {
+		long v = value;
+
+		if (v < 0) {
+			out.append('-');
+			v = -v;
+		}
+
+		long divisor = 1;
+		while (divisor * 10 <= v) {
+			divisor *= 10;
+		}
+
+		for (; divisor > 0; divisor /= 10) {
+			out.append((char) ('0' + (v / divisor) % 10));
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package com.github.HotPocketAdventure.util;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.json.JsonException;
+
+/**
+ * Nested menus where options can lead to child menus.
+ * <br>- Each menu is a node, numbered in the order it was added. The root is node 0.
+ * <br>- A child is either a Menu already in memory or the path of a menu file, which is loaded with {@link Menu#loadFromFile(String) loadFromFile} the first time it is entered and kept afterwards.
+ * Loaded menus use the root menu's console.
+ * <br>- Every node has a table indexed by option number holding the node that option leads to, so choosing an option is one array lookup.
+ * <br>- Choosing the exit option goes back to the parent menu, or leaves the tree at the root. Choosing an option with no child is passed to the {@link ChoiceListener}.
+ * <br>- Not thread safe. Like Menu, a tree should be driven by one user at a time.
+ * @author Michael Bradley
+ *
+ */
+public class MenuTree {
+
+	//Transition table value of options that lead to no child
+	public static final int NONE = -1;
+
+	/**
+	 * Told about choices of options that do not lead to a child menu.
+	 */
+	public interface ChoiceListener {
+		void choiceMade(MenuTree tree, int node, Menu menu);
+	}
+
+	private final List<Node> nodes;
+	private ChoiceListener listener;
+
+	//The current node and the nodes entered to reach it
+	private int current;
+	private int[] parents;
+	private int depth;
+
+	/**
+	 * Creates a tree holding only the root menu.
+	 * @param root
+	 */
+	public MenuTree(Menu root) {
+		nodes = new ArrayList<>();
+		nodes.add(new Node(root, null));
+
+		current = 0;
+		parents = new int[8];
+		depth = 0;
+	}
+
+	/**
+	 * Makes an option of a node lead to a new child menu.
+	 * @param parent the node the option belongs to
+	 * @param option the displayed option number
+	 * @param child
+	 * @return the new child's node.
+	 */
+	public int addChild(int parent, int option, Menu child) {
+		return link(parent, option, add(new Node(child, null)));
+	}
+
+	/**
+	 * Makes an option of a node lead to a menu file that is loaded the first time it is entered.
+	 * @param parent the node the option belongs to
+	 * @param option the displayed option number
+	 * @param path
+	 * @return the new child's node.
+	 */
+	public int addChild(int parent, int option, String path) {
+		return link(parent, option, add(new Node(null, path)));
+	}
+
+	/**
+	 * Makes an option of a node lead to an existing node, so one menu can be entered from several places.
+	 * @param parent the node the option belongs to
+	 * @param option the displayed option number
+	 * @param child the node to enter, or {@link #NONE} to make the option lead nowhere
+	 * @return child
+	 */
+	public int link(int parent, int option, int child) {
+		Node node = node(parent);
+
+		if (option < 1) {
+			throw new IllegalArgumentException("The option number (" + option + ") must be at least 1.");
+		}
+		if (child != NONE) {
+			node(child);
+		}
+
+		if (option >= node.transitions.length) {
+			int oldLength = node.transitions.length;
+			node.transitions = Arrays.copyOf(node.transitions, option + 1);
+			Arrays.fill(node.transitions, oldLength, node.transitions.length, NONE);
+		}
+		node.transitions[option] = child;
+		return child;
+	}
+
+	/**
+	 * Displays the current menu and follows choices until the exit option of the root is chosen.
+	 * <br>Starts at the root.
+	 * @param showChosen whether to add the (un)chosen texts to each option
+	 * @param changeChosen whether to set the chosen flag of each choice
+	 * @return a reference to this MenuTree object.
+	 * @throws FileNotFoundException if a child's menu file can't be found
+	 * @throws JsonException if a child's menu file is not a valid menu document
+	 * @throws NoSuchElementException if the input ends before the root is exited
+	 */
+	public MenuTree run(boolean showChosen, boolean changeChosen) throws FileNotFoundException {
+		reset();
+
+		boolean inside;
+		do {
+			Menu menu = getCurrentMenu();
+			menu.display(showChosen).getInput(changeChosen);
+			inside = follow(menu.getChoice());
+		} while (inside);
+
+		return this;
+	}
+
+	/**
+	 * Follows a choice of the current menu: enters the child it leads to, goes back to the parent on exit, or tells the listener.
+	 * <br>Does not change the current menu's choice or chosen flags.
+	 * @param choice
+	 * @return false if the choice left the tree by exiting the root, otherwise true.
+	 * @throws IllegalArgumentException if the choice is not a valid option of the current menu
+	 * @throws FileNotFoundException if the current menu's file can't be found
+	 */
+	public boolean follow(int choice) throws FileNotFoundException {
+		Node node = nodes.get(current);
+		Menu menu = load(node);
+
+		if (!menu.isValidOption(choice)) {
+			throw new IllegalArgumentException(choice + " is not a valid option of node " + current + ".");
+		}
+
+		if (menu.isExitAllowed() && choice == menu.getExitOn()) {
+			if (depth == 0) {
+				return false;
+			}
+			current = parents[--depth];
+			return true;
+		}
+
+		int next = choice < node.transitions.length ? node.transitions[choice] : NONE;
+		if (next != NONE) {
+			if (depth == parents.length) {
+				parents = Arrays.copyOf(parents, depth * 2);
+			}
+			parents[depth++] = current;
+			current = next;
+		} else if (listener != null) {
+			listener.choiceMade(this, current, menu);
+		}
+		return true;
+	}
+
+	/**
+	 * Goes back to the root.
+	 * @return a reference to this MenuTree object.
+	 */
+	public MenuTree reset() {
+		current = 0;
+		depth = 0;
+		return this;
+	}
+
+	/**
+	 * @return the current node.
+	 */
+	public int getCurrentNode() {
+		return current;
+	}
+
+	/**
+	 * @return the current menu, loading it if it is entered for the first time.
+	 * @throws FileNotFoundException if the menu's file can't be found
+	 */
+	public Menu getCurrentMenu() throws FileNotFoundException {
+		return load(nodes.get(current));
+	}
+
+	/**
+	 * @return the number of menus entered to reach the current one, 0 at the root.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @param node
+	 * @return the node's menu, loading it if it is not loaded yet.
+	 * @throws FileNotFoundException if the menu's file can't be found
+	 */
+	public Menu getMenu(int node) throws FileNotFoundException {
+		return load(node(node));
+	}
+
+	/**
+	 * @param node
+	 * @return whether the node's menu is in memory.
+	 */
+	public boolean isLoaded(int node) {
+		return node(node).menu != null;
+	}
+
+	/**
+	 * @param node
+	 * @param option the displayed option number
+	 * @return the node the option leads to or {@link #NONE}.
+	 */
+	public int getChild(int node, int option) {
+		int[] transitions = node(node).transitions;
+		return option >= 1 && option < transitions.length ? transitions[option] : NONE;
+	}
+
+	/**
+	 * @return the number of nodes in the tree.
+	 */
+	public int getNumNodes() {
+		return nodes.size();
+	}
+
+	/**
+	 * @return the listener told about choices of options with no child or null if there is none.
+	 */
+	public ChoiceListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Sets the listener told about choices of options with no child. Passing a null reference to this method removes the listener.
+	 * @param listener
+	 * @return a reference to this MenuTree object.
+	 */
+	public MenuTree setListener(ChoiceListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	private int add(Node node) {
+		nodes.add(node);
+		return nodes.size() - 1;
+	}
+
+	private Node node(int node) {
+		if (node < 0 || node >= nodes.size()) {
+			throw new IndexOutOfBoundsException("There is no node " + node + ".");
+		}
+		return nodes.get(node);
+	}
+
+	private Menu load(Node node) throws FileNotFoundException {
+		if (node.menu == null) {
+			Menu loaded = Menu.loadFromFile(node.path);
+			loaded.setConsole(nodes.get(0).menu.getConsole());
+			node.menu = loaded;
+		}
+		return node.menu;
+	}
+
+	/**
+	 * A menu, or the file it is loaded from, and its transition table.
+	 */
+	private static final class Node {
+		Menu menu;
+		final String path;
+
+		//Indexed by option number, index 0 is unused so no subtraction is needed
+		int[] transitions;
+
+		Node(Menu menu, String path) {
+			this.menu = menu;
+			this.path = path;
+			transitions = new int[0];
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.github.HotPocketAdventure.util;
+
+/**
+ * An action run when an option of a {@link Menu} is chosen.
+ * <br>Attached to an option with {@link Menu#setHandlerAt(int, OptionHandler, boolean) setHandlerAt} or to the exit option with {@link Menu#setExitHandler(OptionHandler, boolean) setExitHandler}.
+ * @author Michael Bradley
+ *
+ */
+public interface OptionHandler {
+
+	/**
+	 * Called after a valid choice of the option this handler is attached to.
+	 * <br>Async handlers are called on the menu's executor, so the menu may have moved on to later choices by then.
+	 * @param menu the menu the option was chosen from
+	 * @param choice the option number that was chosen
+	 */
+	void optionChosen(Menu menu, int choice);
+}
@@ -0,0 +1,409 @@
+package com.github.HotPocketAdventure.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * A search index over the option texts of an {@link OptionSource}, built once and shared afterwards.
+ * <br>- Matching ignores case. Results are ranked: options starting with the query first, then options containing it, then options sharing at least half of its trigrams, by the number shared.
+ * <br>- Prefix matches come from binary searching the options sorted by text, the rest from trigram posting lists, so a search never scans every option.
+ * <br>- Posting lists are packed into one int array and found through an open addressing table, so the index holds no boxed values.
+ * <br>- Only the sorted order and the posting lists are kept, option texts are asked for again when a match is checked.
+ * <br>- Immutable and thread safe once built.
+ * @author Michael Bradley
+ *
+ */
+public final class OptionIndex {
+
+	//Marks used slots, so the trigram of three '\0' characters is not mistaken for an empty slot
+	private static final long USED = 1L << 62;
+
+	private final OptionSource options;
+
+	//Option indices ordered by their folded text
+	private final int[] sorted;
+
+	//Open addressing table from trigram to the start and length of its posting list in postings
+	private final long[] keys;
+	private final int[] starts;
+	private final int[] lengths;
+
+	//Ascending option indices of every option containing each trigram, one list after another
+	private final int[] postings;
+
+	/**
+	 * Builds the index. Reads every option once.
+	 * @param options
+	 */
+	public OptionIndex(OptionSource options) {
+		int size = options.size();
+		String[] folded = new String[size];
+
+		//First pass counts the options containing each trigram
+		Table table = new Table();
+		for (int i = 0; i < size; i++) {
+			String text = fold(options.get(i));
+			folded[i] = text;
+
+			for (int j = 0; j + 3 <= text.length(); j++) {
+				int slot = table.add(trigram(text, j));
+				if (table.last[slot] != i) {
+					table.last[slot] = i;
+					table.counts[slot]++;
+				}
+			}
+		}
+
+		keys = table.keys;
+		lengths = table.counts;
+		starts = new int[keys.length];
+
+		int total = 0;
+		for (int s = 0; s < keys.length; s++) {
+			starts[s] = total;
+			total += lengths[s];
+		}
+
+		//Second pass fills the lists in option order, so each list is ascending
+		postings = new int[total];
+		int[] fill = starts.clone();
+		Arrays.fill(table.last, -1);
+		for (int i = 0; i < size; i++) {
+			String text = folded[i];
+
+			for (int j = 0; j + 3 <= text.length(); j++) {
+				int slot = find(keys, trigram(text, j));
+				if (table.last[slot] != i) {
+					table.last[slot] = i;
+					postings[fill[slot]++] = i;
+				}
+			}
+		}
+
+		this.options = options;
+		sorted = sortedOrder(folded);
+	}
+
+	/**
+	 * Searches the options, returning the best matches first.
+	 * @param query
+	 * @param limit the largest number of matches to return
+	 * @return the matching option numbers, one more than their indices.
+	 */
+	public int[] search(String query, int limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException("The limit (" + limit + ") is less than zero.");
+		}
+
+		String q = fold(query);
+		int[] ret = new int[Math.min(limit, sorted.length)];
+		int n = 0;
+
+		if (q.isEmpty() || ret.length == 0) {
+			return new int[0];
+		}
+
+		//Prefix matches are one contiguous run of the sorted order
+		int prefixStart = lowerBound(q);
+		int prefixEnd = prefixStart;
+		while (prefixEnd < sorted.length && n < ret.length && fold(options.get(sorted[prefixEnd])).startsWith(q)) {
+			ret[n++] = sorted[prefixEnd++] + 1;
+		}
+
+		if (n < ret.length && q.length() >= 3) {
+			int[] prefixed = Arrays.copyOf(ret, n);
+			Arrays.sort(prefixed);
+			n = searchTrigrams(q, ret, n, prefixed);
+		}
+
+		return n == ret.length ? ret : Arrays.copyOf(ret, n);
+	}
+
+	/**
+	 * @return the number of options indexed.
+	 */
+	public int size() {
+		return sorted.length;
+	}
+
+	/**
+	 * Counts how many of the query's trigrams each candidate option shares.
+	 * <br>An option sharing at least half of them must be in one of the rarest lists, so only those are merged to find candidates.
+	 * The other lists are searched for each candidate, skipping ahead without reading every entry.
+	 * <br>Candidates arrive in option order, so once enough matches share some number of trigrams no later option sharing fewer can be returned,
+	 * and the threshold rises to that number, leaving fewer lists to merge.
+	 * <br>Candidates that contain the query rank first, then by the number shared, ties by option number.
+	 * @param prefixed the option numbers already matched by prefix, sorted
+	 * @return the new number of matches in ret.
+	 */
+	private int searchTrigrams(String q, int[] ret, int n, int[] prefixed) {
+		int k = 0;
+		int present = 0;
+		long[] seen = new long[q.length() - 2];
+		int[] lists = new int[q.length() - 2];
+
+		for (int j = 0; j + 3 <= q.length(); j++) {
+			long key = trigram(q, j);
+			if (indexOf(seen, k, key) < 0) {
+				seen[k++] = key;
+				int slot = find(keys, key);
+				if (slot >= 0) {
+					lists[present++] = slot;
+				}
+			}
+		}
+
+		int threshold = (k + 1) / 2;
+		if (present < threshold) {
+			return n;
+		}
+
+		//Rarest lists first
+		for (int a = 1; a < present; a++) {
+			int slot = lists[a];
+			int b = a - 1;
+			for (; b >= 0 && lengths[lists[b]] > lengths[slot]; b--) {
+				lists[b + 1] = lists[b];
+			}
+			lists[b + 1] = slot;
+		}
+
+		int merged = present - threshold + 1;
+		int[] positions = new int[present];
+		for (int l = 0; l < present; l++) {
+			positions[l] = starts[lists[l]];
+		}
+
+		//buckets[c] holds options sharing c trigrams, buckets[k + 1] those containing the query
+		int room = ret.length - n;
+		int top = present == k ? k + 1 : present;
+		int[][] buckets = new int[k + 2][];
+		int[] counts = new int[k + 2];
+
+		while (counts[top] < room) {
+			int candidate = Integer.MAX_VALUE;
+			for (int l = 0; l < merged; l++) {
+				int slot = lists[l];
+				if (positions[l] < starts[slot] + lengths[slot] && postings[positions[l]] < candidate) {
+					candidate = postings[positions[l]];
+				}
+			}
+			if (candidate == Integer.MAX_VALUE) {
+				break;
+			}
+
+			int shared = 0;
+			for (int l = 0; l < present; l++) {
+				int slot = lists[l];
+				int end = starts[slot] + lengths[slot];
+				if (l >= merged) {
+					positions[l] = seek(positions[l], end, candidate);
+				}
+				if (positions[l] < end && postings[positions[l]] == candidate) {
+					positions[l]++;
+					shared++;
+				}
+			}
+
+			if (shared < threshold || Arrays.binarySearch(prefixed, candidate + 1) >= 0) {
+				continue;
+			}
+
+			int bucket = shared;
+			if (shared == k && fold(options.get(candidate)).contains(q)) {
+				bucket = k + 1;
+			}
+
+			if (counts[bucket] < room) {
+				if (buckets[bucket] == null) {
+					buckets[bucket] = new int[room];
+				}
+				buckets[bucket][counts[bucket]++] = candidate;
+
+				int filled = 0;
+				int floor = top;
+				while (floor > threshold && (filled += counts[floor]) < room) {
+					floor--;
+				}
+				if (Math.min(floor, k) > threshold) {
+					threshold = Math.min(floor, k);
+					merged = present - threshold + 1;
+				}
+			}
+		}
+
+		for (int b = k + 1; b >= threshold && n < ret.length; b--) {
+			for (int i = 0; i < counts[b] && n < ret.length; i++) {
+				ret[n++] = buckets[b][i] + 1;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Gallops forward from a position to the first entry that is not less than the target.
+	 * @return the position of that entry or end if there is none.
+	 */
+	private int seek(int from, int end, int target) {
+		int step = 1;
+		int low = from;
+		int high = from;
+
+		while (high < end && postings[high] < target) {
+			low = high + 1;
+			high += step;
+			step <<= 1;
+		}
+		if (high > end) {
+			high = end;
+		}
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (postings[mid] < target) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the first position in the sorted order whose text is not less than the key.
+	 */
+	private int lowerBound(String key) {
+		int low = 0;
+		int high = sorted.length;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (fold(options.get(sorted[mid])).compareTo(key) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static int[] sortedOrder(final String[] folded) {
+		Integer[] order = new Integer[folded.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return folded[a].compareTo(folded[b]);
+			}
+		});
+
+		int[] ret = new int[order.length];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = order[i];
+		}
+		return ret;
+	}
+
+	/**
+	 * @return the slot of the key in the table or -1 if it is not there.
+	 */
+	private static int find(long[] keys, long key) {
+		int mask = keys.length - 1;
+
+		for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	private static int indexOf(long[] values, int length, long value) {
+		for (int i = 0; i < length; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private static long trigram(String text, int at) {
+		return USED | ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+	}
+
+	private static String fold(String text) {
+		return text == null ? "" : text.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * The open addressing table while the index is built, growing to stay at most half full.
+	 * <br>last holds the last option counted for each trigram, so an option is counted once however often it repeats the trigram.
+	 */
+	private static final class Table {
+		long[] keys = new long[1024];
+		int[] counts = new int[1024];
+		int[] last = newLast(1024);
+		int used;
+
+		/**
+		 * @return the slot of the key, adding it if it is not there.
+		 */
+		int add(long key) {
+			int mask = keys.length - 1;
+			int slot = hash(key) & mask;
+
+			for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+				if (keys[slot] == key) {
+					return slot;
+				}
+			}
+
+			if (2 * (used + 1) > keys.length) {
+				grow();
+				return add(key);
+			}
+
+			keys[slot] = key;
+			used++;
+			return slot;
+		}
+
+		private void grow() {
+			long[] oldKeys = keys;
+			int[] oldCounts = counts;
+			int[] oldLast = last;
+
+			keys = new long[oldKeys.length * 2];
+			counts = new int[keys.length];
+			last = newLast(keys.length);
+
+			int mask = keys.length - 1;
+			for (int s = 0; s < oldKeys.length; s++) {
+				if (oldKeys[s] != 0) {
+					int slot = hash(oldKeys[s]) & mask;
+					while (keys[slot] != 0) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[s];
+					counts[slot] = oldCounts[s];
+					last[slot] = oldLast[s];
+				}
+			}
+		}
+
+		private static int[] newLast(int length) {
+			int[] ret = new int[length];
+			Arrays.fill(ret, -1);
+			return ret;
+		}
+	}
+}
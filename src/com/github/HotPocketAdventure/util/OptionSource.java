@@ -0,0 +1,22 @@
+package com.github.HotPocketAdventure.util;
+
+/**
+ * Supplies the text of a {@link MenuDefinition}'s options by index, so the options don't have to be held in an array.
+ * <br>- Implementations must always return the same text for the same index and be safe to call from any thread.
+ * @author Michael Bradley
+ *
+ */
+public interface OptionSource {
+
+	/**
+	 * @return the number of options excluding the exit option.
+	 */
+	int size();
+
+	/**
+	 * Note: index will be one less than the displayed option number.
+	 * @param index
+	 * @return the option at the specified index.
+	 */
+	String get(int index);
+}
@@ -0,0 +1,53 @@
+package com.github.HotPocketAdventure.util;
+
+/**
+ * The counts of a {@link Menu#replay(int[], boolean) replay} of choices.
+ * <br>Every choice replayed is either applied or rejected. Exits are the applied choices of the exit option.
+ * @author Michael Bradley
+ *
+ */
+public final class ReplayResult {
+
+	private final long applied;
+	private final long rejected;
+	private final long exited;
+
+	ReplayResult(long applied, long rejected, long exited) {
+		this.applied = applied;
+		this.rejected = rejected;
+		this.exited = exited;
+	}
+
+	/**
+	 * @return the number of valid choices applied to the menu, exits included.
+	 */
+	public long getApplied() {
+		return applied;
+	}
+
+	/**
+	 * @return the number of choices skipped because they were not valid options, or were not integers.
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * @return the number of applied choices that were the exit option.
+	 */
+	public long getExited() {
+		return exited;
+	}
+
+	/**
+	 * @return the number of choices replayed.
+	 */
+	public long getTotal() {
+		return applied + rejected;
+	}
+
+	@Override
+	public String toString() {
+		return "applied " + applied + ", rejected " + rejected + ", exited " + exited;
+	}
+}
@@ -0,0 +1,116 @@
+package com.github.HotPocketAdventure.util;
+
+/**
+ * Parses multi-select input such as "1,3,5-9" into a {@link ChosenSet} in one pass.
+ * <br>- Items are separated by commas and/or whitespace.
+ * <br>- An item is an option number, a range of option numbers "a-b" with a no greater than b, or one of the words {@link #ALL} and {@link #NONE}, ignoring case.
+ * <br>- Ranges are set a word at a time, so "1-1000000" costs the same as a few single numbers.
+ * <br>- Option numbers must be in [1, numOptions], the options that {@link Menu#isValidOption(int) isValidOption} accepts apart from the exit option.
+ * @author Michael Bradley
+ *
+ */
+final class SelectionParser {
+
+	static final String ALL = "all";
+	static final String NONE = "none";
+
+	private SelectionParser() {
+	}
+
+	/**
+	 * @param text
+	 * @param numOptions
+	 * @return the selected options, or null if the text is empty or any item is not valid.
+	 */
+	static ChosenSet parse(CharSequence text, int numOptions) {
+		ChosenSet ret = new ChosenSet(numOptions);
+		int length = text.length();
+		int i = 0;
+		boolean any = false;
+
+		while (true) {
+			while (i < length && isSeparator(text.charAt(i))) {
+				i++;
+			}
+			if (i == length) {
+				return any ? ret : null;
+			}
+
+			int end = i;
+			while (end < length && !isSeparator(text.charAt(end))) {
+				end++;
+			}
+
+			if (!parseItem(text, i, end, numOptions, ret)) {
+				return null;
+			}
+			any = true;
+			i = end;
+		}
+	}
+
+	/**
+	 * Adds one item in [start, end) of the text to the selection.
+	 * @return whether the item was valid.
+	 */
+	private static boolean parseItem(CharSequence text, int start, int end, int numOptions, ChosenSet selection) {
+		if (isWord(text, start, end, ALL)) {
+			selection.setAll(true);
+			return true;
+		}
+		if (isWord(text, start, end, NONE)) {
+			return true;
+		}
+
+		int dash = start;
+		while (dash < end && text.charAt(dash) != '-') {
+			dash++;
+		}
+
+		long first = parseNumber(text, start, dash);
+		long last = dash == end ? first : parseNumber(text, dash + 1, end);
+
+		if (first < 1 || last > numOptions || first > last) {
+			return false;
+		}
+
+		selection.setRange((int) first - 1, (int) last, true);
+		return true;
+	}
+
+	/**
+	 * @return the unsigned base 10 number in [start, end) of the text, or -1 if it is empty, has other characters or is too long to be an option number.
+	 */
+	private static long parseNumber(CharSequence text, int start, int end) {
+		if (start == end || end - start > 10) {
+			return -1;
+		}
+
+		long ret = 0;
+		for (int i = start; i < end; i++) {
+			int digit = text.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			ret = ret * 10 + digit;
+		}
+		return ret;
+	}
+
+	private static boolean isWord(CharSequence text, int start, int end, String word) {
+		if (end - start != word.length()) {
+			return false;
+		}
+
+		for (int i = 0; i < word.length(); i++) {
+			if (Character.toLowerCase(text.charAt(start + i)) != word.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSeparator(char c) {
+		return c == ',' || Character.isWhitespace(c);
+	}
+}
@@ -0,0 +1,154 @@
+package com.github.HotPocketAdventure.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A canonicalizing table of Strings, so that equal menu texts such as "Back", "Yes" and "No" are held once on the heap.
+ * <br>- Off by default. Once {@link #enable() enabled}, the Menu constructors, setters, {@link Menu#copy(Menu) copy} and the JSON and binary loaders store the pool's instance of each text instead of their own.
+ * <br>- Entries are weak, so a text is dropped from the pool once no menu holds it. Cleared entries are removed on the next {@link #intern(String) intern}.
+ * <br>- Seeded with {@link Menu#ON_OFF}, {@link Menu#YES_NO} and the default chosen texts, so loaded menus share those constants.
+ * <br>- Thread safe without a global lock, so menus loaded in parallel do not queue up on the pool.
+ * @author Michael Bradley
+ *
+ */
+public final class StringPool {
+
+	private static volatile StringPool shared;
+
+	//Each entry maps a weak reference to itself, so it can be looked up by the text it refers to
+	private final ConcurrentHashMap<Entry, Entry> table;
+	private final ReferenceQueue<String> cleared;
+
+	/**
+	 * Creates an empty pool.
+	 */
+	public StringPool() {
+		table = new ConcurrentHashMap<>();
+		cleared = new ReferenceQueue<>();
+	}
+
+	/**
+	 * Starts canonicalizing menu texts through a shared pool, keeping the current one if already enabled.
+	 * @return the shared pool.
+	 */
+	public static synchronized StringPool enable() {
+		StringPool ret = shared;
+
+		if (ret == null) {
+			ret = new StringPool();
+			for (String s : Menu.ON_OFF) {
+				ret.intern(s);
+			}
+			for (String s : Menu.YES_NO) {
+				ret.intern(s);
+			}
+			ret.intern("Chosen");
+			ret.intern("Not chosen");
+			shared = ret;
+		}
+		return ret;
+	}
+
+	/**
+	 * Stops canonicalizing. Menus keep the Strings they already hold.
+	 */
+	public static synchronized void disable() {
+		shared = null;
+	}
+
+	/**
+	 * @return the shared pool or null if pooling is off.
+	 */
+	public static StringPool getShared() {
+		return shared;
+	}
+
+	/**
+	 * @param s
+	 * @return the pool's String equal to s, adding s if there is none.
+	 */
+	public String intern(String s) {
+		expunge();
+		Entry entry = new Entry(s, cleared);
+
+		while (true) {
+			Entry existing = table.putIfAbsent(entry, entry);
+			if (existing == null) {
+				return s;
+			}
+
+			String ret = existing.get();
+			if (ret != null) {
+				return ret;
+			}
+			//Cleared since it was matched, drop it and try again
+			table.remove(existing, existing);
+		}
+	}
+
+	/**
+	 * @return the number of Strings in the pool, including any no longer held that have not been cleared yet.
+	 */
+	public int size() {
+		return table.size();
+	}
+
+	private void expunge() {
+		Object ref;
+		while ((ref = cleared.poll()) != null) {
+			table.remove(ref, ref);
+		}
+	}
+
+	/**
+	 * @return s itself if pooling is off or s is null, the shared pool's instance otherwise.
+	 */
+	static String canonical(String s) {
+		StringPool pool = shared;
+		return pool == null || s == null ? s : pool.intern(s);
+	}
+
+	/**
+	 * Menus keep a private copy of each option set on them unless pooling is on.
+	 * @return a new String equal to s if pooling is off, the shared pool's instance otherwise.
+	 * @throws NullPointerException if s is null
+	 */
+	static String copy(String s) {
+		StringPool pool = shared;
+		return pool == null ? new String(s) : pool.intern(s);
+	}
+
+	/**
+	 * A weak reference that equals any other whose text is equal while both are still set.
+	 * Once cleared it only equals itself, so it can still be removed.
+	 */
+	private static final class Entry extends WeakReference<String> {
+
+		private final int hash;
+
+		Entry(String s, ReferenceQueue<String> queue) {
+			super(s, queue);
+			hash = s.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (!(o instanceof Entry)) {
+				return false;
+			}
+
+			String s = get();
+			return s != null && s.equals(((Entry) o).get());
+		}
+	}
+}
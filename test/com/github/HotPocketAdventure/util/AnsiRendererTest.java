@@ -0,0 +1,79 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the escape sequences {@link AnsiRenderer} writes for full and partial redraws.
+ * @author Michael Bradley
+ *
+ */
+public class AnsiRendererTest {
+
+	private static final String ESC = "\u001B[";
+
+	private AnsiRenderer renderer;
+	private ByteArrayOutputStream bytes;
+	private PrintStream out;
+
+	@Before
+	public void createRenderer() {
+		renderer = new AnsiRenderer();
+		bytes = new ByteArrayOutputStream();
+		out = new PrintStream(bytes, true);
+	}
+
+	private String draw(String frame) {
+		bytes.reset();
+		renderer.draw(frame, out);
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void drawsFirstFrameInFull() {
+		assertEquals(ESC + "2J" + ESC + "H" + "a\nb\n" + ESC + "J\n", draw("a\nb\n"));
+	}
+
+	@Test
+	public void redrawsOnlyChangedLines() {
+		draw("t\n1. a - N\n2. b - N\n");
+
+		assertEquals(ESC + "3;1H" + ESC + "2K" + "2. b - Y" + ESC + "4;1H" + ESC + "J\n", draw("t\n1. a - N\n2. b - Y\n"));
+		assertEquals(ESC + "4;1H" + ESC + "J\n", draw("t\n1. a - N\n2. b - Y"));
+	}
+
+	@Test
+	public void redrawsInFullWhenLineCountChanges() {
+		draw("a\nb\n");
+
+		assertEquals(ESC + "2J" + ESC + "H" + "a\n" + ESC + "J\n", draw("a\n"));
+	}
+
+	@Test
+	public void redrawsInFullAfterInvalidate() {
+		draw("a\n");
+		renderer.invalidate();
+
+		assertEquals(ESC + "2J" + ESC + "H" + "a\n" + ESC + "J\n", draw("a\n"));
+	}
+
+	@Test
+	public void menuRedrawsFlippedChosenText() {
+		Menu menu = new Menu("t", new String[] {"a", "b"}, true, 0, "Exit", "Y", "N");
+		menu.setConsole(new MenuConsole(new ByteArrayInputStream(new byte[0]), bytes).setRenderer(renderer));
+
+		menu.display(true);
+		bytes.reset();
+		menu.setChosenAt(0, true);
+		menu.display(true);
+
+		assertEquals(ESC + "3;1H" + ESC + "2K" + "1. a - Y" + ESC + "6;1H" + ESC + "J\n", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+	}
+}
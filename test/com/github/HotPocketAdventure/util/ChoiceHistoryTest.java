@@ -0,0 +1,147 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks the ring buffer of {@link ChoiceHistory} and undoing choices with {@link Menu#undo(int)}.
+ * @author Michael Bradley
+ *
+ */
+public class ChoiceHistoryTest {
+
+	@Test
+	public void wrapsAroundWhenFull() {
+		ChoiceHistory history = new ChoiceHistory(3);
+
+		for (int i = 1; i <= 5; i++) {
+			history.record(i, i % 2 == 0);
+		}
+
+		assertEquals(3, history.size());
+		assertEquals(3, history.capacity());
+		assertEquals(5, history.getRecorded());
+		assertEquals(5, history.getChoice(0));
+		assertEquals(4, history.getChoice(1));
+		assertEquals(3, history.getChoice(2));
+		assertFalse(history.isFlipped(0));
+		assertTrue(history.isFlipped(1));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void rejectsChoicesNotHeld() {
+		ChoiceHistory history = new ChoiceHistory(3);
+		history.record(1, false);
+
+		history.getChoice(1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsEmptyCapacity() {
+		new ChoiceHistory(0);
+	}
+
+	@Test
+	public void recordsTimestamps() {
+		ChoiceHistory history = new ChoiceHistory(2, true);
+		long before = System.currentTimeMillis();
+
+		history.record(1, false);
+
+		assertTrue(history.hasTimestamps());
+		assertTrue(history.getTimestamp(0) >= before);
+		assertTrue(history.getTimestamp(0) <= System.currentTimeMillis());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsTimestampsNotRecorded() {
+		ChoiceHistory history = new ChoiceHistory(2);
+		history.record(1, false);
+
+		history.getTimestamp(0);
+	}
+
+	@Test
+	public void removesAcrossTheWrap() {
+		ChoiceHistory history = new ChoiceHistory(3);
+		for (int i = 1; i <= 4; i++) {
+			history.record(i, false);
+		}
+
+		assertEquals(2, history.removeRecent(2));
+		assertEquals(1, history.size());
+		assertEquals(2, history.getChoice(0));
+
+		history.record(7, false);
+		assertEquals(7, history.getChoice(0));
+		assertEquals(2, history.getChoice(1));
+
+		assertEquals(2, history.removeRecent(5));
+		assertEquals(0, history.size());
+		//The overwritten first choice is still counted
+		assertEquals(1, history.getRecorded());
+	}
+
+	@Test
+	public void clearForgetsEverything() {
+		ChoiceHistory history = new ChoiceHistory(3);
+		history.record(1, false);
+		history.record(2, false);
+
+		history.clear();
+
+		assertEquals(0, history.size());
+		assertEquals(0, history.getRecorded());
+		history.record(3, false);
+		assertEquals(3, history.getChoice(0));
+	}
+
+	private static Menu menu() {
+		return new Menu("t", new String[] {"a", "b", "c"}, true, 0, "Exit", "Y", "N");
+	}
+
+	@Test
+	public void undoRestoresChoicesAndFlags() {
+		Menu menu = menu();
+		menu.setHistory(new ChoiceHistory(8));
+		menu.replay(new int[] {1, 2, 1, 3}, true);
+
+		assertEquals(1, menu.undo(1));
+		assertFalse(menu.isChosenAt(2));
+		assertEquals(1, menu.getChoice());
+		assertEquals(2, menu.getLastChoice());
+
+		//Choosing 1 again did not set its flag, so undoing it leaves the first choice's flag
+		assertEquals(1, menu.undo(1));
+		assertTrue(menu.isChosenAt(0));
+		assertTrue(menu.isChosenAt(1));
+		assertEquals(2, menu.getChoice());
+		assertEquals(1, menu.getLastChoice());
+
+		assertEquals(2, menu.undo(5));
+		assertEquals(0, menu.getNumChosen());
+		assertEquals(-1, menu.getChoice());
+		assertEquals(-1, menu.getLastChoice());
+	}
+
+	@Test
+	public void undoDoesNotChangeCopies() {
+		Menu menu = menu();
+		menu.setHistory(new ChoiceHistory(8));
+		menu.replay(new int[] {1, 2}, true);
+		Menu copy = new Menu(menu);
+
+		menu.undo(2);
+
+		assertEquals(0, menu.getNumChosen());
+		assertEquals(2, copy.getNumChosen());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void undoNeedsAHistory() {
+		menu().undo(1);
+	}
+}
@@ -0,0 +1,132 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * Checks how {@link ChoiceReader} tokenizes choices and handles input it can't parse.
+ * @author Michael Bradley
+ *
+ */
+public class ChoiceReaderTest {
+
+	private static ChoiceReader reader(String text, int bufferSize) {
+		return new ChoiceReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), bufferSize);
+	}
+
+	@Test
+	public void readsIntegersAcrossBufferRefills() {
+		ChoiceReader reader = reader("  12\t-3\r\n+7 0042 x9 ", 3);
+
+		assertEquals(ChoiceReader.INTEGER, reader.next());
+		assertEquals(12, reader.getValue());
+		assertEquals(ChoiceReader.INTEGER, reader.next());
+		assertEquals(-3, reader.getValue());
+		assertEquals(ChoiceReader.INTEGER, reader.next());
+		assertEquals(7, reader.getValue());
+		assertEquals(ChoiceReader.INTEGER, reader.next());
+		assertEquals(42, reader.getValue());
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertEquals(ChoiceReader.END, reader.next());
+		assertEquals(ChoiceReader.END, reader.next());
+	}
+
+	@Test
+	public void rejectsIntegersThatOverflow() {
+		ChoiceReader reader = reader("2147483647 2147483648 -2147483648 -2147483649 99999999999999999999 - +", 8192);
+
+		assertEquals(ChoiceReader.INTEGER, reader.next());
+		assertEquals(Integer.MAX_VALUE, reader.getValue());
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertEquals(ChoiceReader.INTEGER, reader.next());
+		assertEquals(Integer.MIN_VALUE, reader.getValue());
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertEquals(ChoiceReader.END, reader.next());
+	}
+
+	@Test
+	public void discardsTokensPastTheLimit() {
+		char[] digits = new char[ChoiceReader.MAX_TOKEN_LENGTH * 4];
+		Arrays.fill(digits, '1');
+		ChoiceReader reader = reader(new String(digits) + " 5", 64);
+
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertFalse(reader.startsWith('1'));
+		assertEquals(ChoiceReader.INTEGER, reader.next());
+		assertEquals(5, reader.getValue());
+	}
+
+	@Test
+	public void matchesWordsIgnoringCase() {
+		ChoiceReader reader = reader("Exit q", 8192);
+
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertTrue(reader.isWord("exit"));
+		assertFalse(reader.isWord("exi"));
+		assertFalse(reader.isEndOfLine());
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertTrue(reader.startsWith('q'));
+		assertTrue(reader.isEndOfLine());
+	}
+
+	@Test
+	public void readsLines() {
+		ChoiceReader reader = reader("/find big  red\r\n3 café au lait\n", 4);
+
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertEquals("/find big  red", reader.lineFromToken());
+		assertEquals(ChoiceReader.INTEGER, reader.next());
+		assertEquals("3 café au lait", reader.lineFromToken());
+		assertEquals(ChoiceReader.END, reader.next());
+	}
+
+	@Test
+	public void capsLongLines() {
+		char[] text = new char[ChoiceReader.MAX_TOKEN_LENGTH * 3];
+		Arrays.fill(text, 'a');
+		ChoiceReader reader = reader("a " + new String(text) + "\n7", 100);
+
+		assertEquals(ChoiceReader.INVALID, reader.next());
+		assertEquals(ChoiceReader.MAX_TOKEN_LENGTH, reader.lineFromToken().length());
+		assertEquals(ChoiceReader.INTEGER, reader.next());
+		assertEquals(7, reader.getValue());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsEmptyBuffer() {
+		reader("", 0);
+	}
+
+	@Test
+	public void menuSkipsInvalidInput() {
+		Menu menu = new Menu("t", new String[] {"a", "b"}, true, 0, "Exit");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		menu.setConsole(new MenuConsole(new ByteArrayInputStream("x 99999999999 3 -1 2\n".getBytes(StandardCharsets.US_ASCII)), out));
+
+		menu.getInput(true);
+
+		assertEquals(2, menu.getChoice());
+		assertTrue(menu.isChosenAt(1));
+		assertEquals(5, new String(out.toByteArray(), StandardCharsets.US_ASCII).split("Enter: ", -1).length - 1);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void menuThrowsWhenInputEnds() {
+		Menu menu = new Menu("t", new String[] {"a"});
+		menu.setConsole(new MenuConsole(new ByteArrayInputStream("x 7".getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream()));
+
+		menu.getInput();
+	}
+}
@@ -0,0 +1,146 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Checks the counts and most chosen options of {@link ChoiceStatistics}.
+ * @author Michael Bradley
+ *
+ */
+public class ChoiceStatisticsTest {
+
+	@Test
+	public void countsChoicesExitsAndInvalidInputs() {
+		ChoiceStatistics statistics = new ChoiceStatistics(4);
+
+		statistics.recordChoice(2);
+		statistics.recordChoice(2);
+		statistics.recordChoice(4);
+		statistics.recordExit();
+		statistics.recordInvalid();
+		statistics.recordInvalid();
+
+		assertEquals(0, statistics.getCount(1));
+		assertEquals(2, statistics.getCount(2));
+		assertEquals(1, statistics.getCount(4));
+		assertEquals(1, statistics.getExits());
+		assertEquals(2, statistics.getInvalid());
+		assertArrayEquals(new long[] {0, 2, 0, 1}, statistics.snapshot());
+	}
+
+	@Test
+	public void topKOrdersByCountThenNumber() {
+		ChoiceStatistics statistics = new ChoiceStatistics(6);
+		int[] choices = {5, 3, 5, 1, 3, 6, 5};
+		for (int c : choices) {
+			statistics.recordChoice(c);
+		}
+
+		assertArrayEquals(new int[] {5}, statistics.topK(1));
+		assertArrayEquals(new int[] {5, 3, 1}, statistics.topK(3));
+		assertArrayEquals(new int[] {5, 3, 1, 6}, statistics.topK(10));
+		assertEquals(0, statistics.topK(0).length);
+	}
+
+	@Test
+	public void topKMatchesSortingEveryOption() {
+		Random random = new Random(42);
+		final ChoiceStatistics statistics = new ChoiceStatistics(500);
+		for (int i = 0; i < 5000; i++) {
+			statistics.recordChoice(1 + random.nextInt(500) % (1 + random.nextInt(500)));
+		}
+
+		List<Integer> chosen = new ArrayList<>();
+		for (int number = 1; number <= 500; number++) {
+			if (statistics.getCount(number) > 0) {
+				chosen.add(number);
+			}
+		}
+		chosen.sort(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				int byCount = Long.compare(statistics.getCount(b), statistics.getCount(a));
+				return byCount != 0 ? byCount : Integer.compare(a, b);
+			}
+		});
+
+		for (int k : new int[] {1, 7, 50, 500}) {
+			int[] expected = new int[Math.min(k, chosen.size())];
+			for (int i = 0; i < expected.length; i++) {
+				expected[i] = chosen.get(i);
+			}
+			assertArrayEquals("k = " + k, expected, statistics.topK(k));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void topKRejectsNegativeK() {
+		new ChoiceStatistics(3).topK(-1);
+	}
+
+	@Test
+	public void countsConcurrentChoices() throws Exception {
+		final ChoiceStatistics statistics = new ChoiceStatistics(8);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int i = 0; i < 10000; i++) {
+							statistics.recordChoice(1 + i % 8);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		long[] expected = new long[8];
+		Arrays.fill(expected, 10000);
+		assertArrayEquals(expected, statistics.snapshot());
+	}
+
+	@Test
+	public void sessionsCountOnceTurnedOn() {
+		MenuDefinition definition = new MenuDefinition("t", new String[] {"a", "b", "c"}, true, 0, "Exit", "Y", "N");
+		definition.newSession().setConsole(console("1\n")).getInput();
+		assertNull(definition.statistics());
+
+		ChoiceStatistics statistics = definition.getStatistics();
+		definition.newSession().setConsole(console("x\n9\n2\n")).getInput();
+		definition.newSession().setConsole(console("0\n")).getInput();
+
+		assertArrayEquals(new long[] {0, 1, 0}, statistics.snapshot());
+		assertEquals(2, statistics.getInvalid());
+		assertEquals(1, statistics.getExits());
+	}
+
+	private static MenuConsole console(String input) {
+		return new MenuConsole(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream());
+	}
+}
@@ -0,0 +1,123 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the word-at-a-time operations of {@link ChosenSet} against a plain boolean array.
+ * @author Michael Bradley
+ *
+ */
+public class ChosenSetTest {
+
+	@Test
+	public void rangesMatchBooleanArray() {
+		Random random = new Random(5);
+
+		for (int t = 0; t < 5000; t++) {
+			int n = 1 + random.nextInt(300);
+			ChosenSet set = new ChosenSet(n);
+			boolean[] expected = new boolean[n];
+
+			for (int k = 0; k < 5; k++) {
+				int from = random.nextInt(n + 1);
+				int to = from + random.nextInt(n - from + 1);
+				boolean value = random.nextBoolean();
+
+				int changed = 0;
+				for (int i = from; i < to; i++) {
+					if (expected[i] != value) {
+						changed++;
+					}
+					expected[i] = value;
+				}
+
+				assertEquals(changed, set.setRange(from, to, value));
+				assertArrayEquals(expected, set.toArray());
+				assertEquals(new ChosenSet(expected).count(), set.count());
+			}
+
+			int from = random.nextInt(n);
+			int next = -1;
+			for (int i = from; i < n; i++) {
+				if (expected[i]) {
+					next = i;
+					break;
+				}
+			}
+			assertEquals(next, set.nextSet(from));
+		}
+	}
+
+	@Test
+	public void rangesOnWordBoundaries() {
+		ChosenSet set = new ChosenSet(200);
+
+		assertEquals(64, set.setRange(64, 128, true));
+		assertEquals(-1, set.nextSet(128));
+		assertEquals(64, set.nextSet(0));
+		assertEquals(127, set.nextSet(127));
+		assertEquals(0, set.setRange(100, 100, true));
+		assertEquals(200 - 64, set.setRange(0, 200, true));
+		assertTrue(set.isComplete());
+	}
+
+	@Test
+	public void orCountsAddedFlags() {
+		ChosenSet a = new ChosenSet(130);
+		ChosenSet b = new ChosenSet(130);
+		a.setRange(0, 10, true);
+		b.setRange(5, 129, true);
+
+		assertEquals(119, a.or(b));
+		assertEquals(129, a.count());
+		assertEquals(129, a.toIndices().length);
+		assertEquals(128, a.toIndices()[128]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void orRejectsDifferentSizes() {
+		new ChosenSet(10).or(new ChosenSet(11));
+	}
+
+	@Test
+	public void countsSingleChanges() {
+		ChosenSet set = new ChosenSet(100);
+
+		assertTrue(set.set(99, true));
+		assertFalse(set.set(99, true));
+		assertEquals(1, set.count());
+		assertTrue(set.setAll(true));
+		assertEquals(100, set.count());
+		assertTrue(set.isComplete());
+		assertTrue(set.set(0, false));
+		assertFalse(set.isComplete());
+		assertEquals(new ChosenSet(set.toArray()), set);
+	}
+
+	@Test
+	public void menuCountersFollowChoices() {
+		Menu menu = new Menu("t", new String[] {"a", "b", "c"});
+
+		menu.setChosenAt(0, true);
+		menu.setChosenAt(0, true);
+		assertEquals(1, menu.getNumChosen());
+		assertEquals(2, menu.getNumUnchosen());
+		menu.setComplete(true);
+		assertTrue(menu.isComplete());
+		menu.setChosenAt(2, false);
+		assertEquals(2, menu.getNumChosen());
+		assertFalse(menu.isComplete());
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void rejectsIndexPastTheEnd() {
+		new ChosenSet(64).get(64);
+	}
+}
@@ -0,0 +1,89 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link EncodingAppendable} encodes the same bytes as {@link String#getBytes(Charset)}, however the text is split.
+ * @author Michael Bradley
+ *
+ */
+public class EncodingAppendableTest {
+
+	private static String encode(ByteBuffer buffer, Charset charset) {
+		buffer.flip();
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return new String(bytes, charset);
+	}
+
+	@Test
+	public void keepsSurrogatePairsSplitAcrossAppends() {
+		String text = "a😀b";
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		EncodingAppendable out = new EncodingAppendable(buffer, StandardCharsets.UTF_8);
+
+		out.append(text, 0, 2);
+		out.append(text, 2, 4);
+		out.finish();
+
+		assertEquals(text, encode(buffer, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void keepsSurrogatePairsSplitAcrossChunks() {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			text.append(i % 3 == 0 ? "x" : "😀");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(20000);
+		EncodingAppendable out = new EncodingAppendable(buffer, StandardCharsets.UTF_8);
+
+		for (int i = 0; i < text.length(); i++) {
+			out.append(text.charAt(i));
+		}
+		out.append(text);
+		out.append(text.toString());
+		out.finish();
+
+		String expected = text.toString() + text + text;
+		assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, buffer.position());
+		assertEquals(expected, encode(buffer, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void replacesUnpairedSurrogateAtTheEnd() {
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		EncodingAppendable out = new EncodingAppendable(buffer, StandardCharsets.UTF_8);
+
+		out.append("a\uD83D");
+		out.finish();
+
+		assertEquals("a?", encode(buffer, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void appendsNull() {
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		EncodingAppendable out = new EncodingAppendable(buffer, StandardCharsets.US_ASCII);
+
+		out.append(null);
+		out.finish();
+
+		assertEquals("null", encode(buffer, StandardCharsets.US_ASCII));
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void overflowsWhenFull() {
+		EncodingAppendable out = new EncodingAppendable(ByteBuffer.allocate(4), StandardCharsets.UTF_8);
+
+		out.append("hello");
+		out.finish();
+	}
+}
@@ -0,0 +1,118 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks the caching and reloading done by {@link MenuCatalog}.
+ * @author Michael Bradley
+ *
+ */
+public class MenuCatalogTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path write(String name, String... options) throws IOException {
+		Path path = folder.getRoot().toPath().resolve(name + MenuFile.EXTENSION);
+		MenuFile.write(path, new MenuDefinition(name, options, false, 0, "", "", ""), null);
+		return path;
+	}
+
+	@Test
+	public void loadsOnceWhenLookupsMissTogether() throws Exception {
+		final Path path = write("menu", "a", "b");
+		final MenuCatalog catalog = new MenuCatalog(4);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			List<Future<MenuDefinition>> results = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				results.add(executor.submit(new Callable<MenuDefinition>() {
+					@Override
+					public MenuDefinition call() throws IOException {
+						return catalog.get(path);
+					}
+				}));
+			}
+
+			MenuDefinition first = results.get(0).get();
+			for (Future<MenuDefinition> result : results) {
+				assertSame(first, result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(1, catalog.getMisses());
+		assertEquals(31, catalog.getHits());
+	}
+
+	@Test
+	public void reloadsChangedFiles() throws IOException {
+		Path path = write("menu", "a", "b");
+		MenuCatalog catalog = new MenuCatalog(4);
+		MenuDefinition first = catalog.get(path);
+
+		assertSame(first, catalog.get(path));
+		write("menu", "a", "b", "c");
+		MenuDefinition second = catalog.get(path);
+
+		assertNotSame(first, second);
+		assertEquals(3, second.getNumOptions());
+		assertEquals(1, catalog.getInvalidations());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() throws IOException {
+		MenuCatalog catalog = new MenuCatalog(2);
+		Path a = write("a", "1");
+		Path b = write("b", "1");
+		Path c = write("c", "1");
+
+		catalog.get(a);
+		catalog.get(b);
+		catalog.get(a);
+		catalog.get(c);
+
+		assertEquals(2, catalog.size());
+		assertEquals(1, catalog.getEvictions());
+		assertEquals(1, catalog.getHits());
+		catalog.get(a);
+		assertEquals(2, catalog.getHits());
+	}
+
+	@Test
+	public void invalidatesOnRequest() throws IOException {
+		Path path = write("menu", "a");
+		MenuCatalog catalog = new MenuCatalog(4);
+		MenuDefinition first = catalog.get(path);
+
+		assertTrue(catalog.invalidate(path));
+		assertFalse(catalog.invalidate(path));
+		assertNotSame(first, catalog.get(path));
+		catalog.clear();
+		assertEquals(0, catalog.size());
+	}
+
+	@Test(expected = IOException.class)
+	public void failsForMissingFiles() throws IOException {
+		new MenuCatalog(4).get(folder.getRoot().toPath().resolve("missing" + MenuFile.EXTENSION));
+	}
+}
@@ -0,0 +1,161 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.HotPocketAdventure.util.exceptions.InvalidMemberException;
+
+/**
+ * Checks that binary menu files round trip, that corrupt headers are rejected on open and corrupt option offsets when the option is read.
+ * @author Michael Bradley
+ *
+ */
+public class MenuFileTest {
+
+	//Bytes from the start of the file to the offset table when every header text is empty
+	private static final int TABLE = 16 + 4 * 4;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path file;
+	private byte[] bytes;
+
+	@Before
+	public void writeFile() throws IOException {
+		file = folder.getRoot().toPath().resolve("menu" + MenuFile.EXTENSION);
+		MenuDefinition definition = new MenuDefinition("", new String[] {"one", "two", "three"}, false, 0, "", "", "");
+		MenuFile.write(file, definition, null);
+		bytes = Files.readAllBytes(file);
+	}
+
+	@Test
+	public void roundTrips() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("full" + MenuFile.EXTENSION);
+		Menu menu = new Menu("Title", new String[] {"a", "bé", "", "d"}, true, 5, "Quit", "[x]", "[ ]");
+		menu.setChosenAt(1, true);
+		MenuFile.write(path, menu, true);
+
+		MenuFile read = MenuFile.open(path);
+		assertTrue(read.hasChosen());
+		assertEquals("Title", read.getDefinition().getTitle());
+		assertEquals("Quit", read.getDefinition().getExitText());
+		assertEquals(5, read.getDefinition().getExitOn());
+
+		Menu copy = read.toMenu();
+		assertArrayEquals(menu.getOptions(), copy.getOptions());
+		assertTrue(copy.isChosenAt(1));
+		assertFalse(copy.isChosenAt(0));
+		assertEquals(menu.toString(true), copy.toString(true));
+	}
+
+	@Test
+	public void opensValidFile() throws IOException {
+		MenuFile read = MenuFile.open(file);
+
+		assertFalse(read.hasChosen());
+		assertEquals("three", read.getDefinition().getOptionSource().get(2));
+	}
+
+	@Test
+	public void rejectsBadMagicAndVersion() throws IOException {
+		assertCorrupt(with(0, 0), "not a binary menu file");
+		assertCorrupt(with(4, 0x00020000), "unsupported version");
+	}
+
+	@Test
+	public void rejectsNegativeTextLength() throws IOException {
+		assertCorrupt(with(16, -5), "truncated or corrupt");
+		assertCorrupt(with(16, Integer.MAX_VALUE), "truncated or corrupt");
+	}
+
+	@Test
+	public void rejectsOptionCountPastTheEnd() throws IOException {
+		assertCorrupt(with(8, Integer.MAX_VALUE), "truncated or corrupt");
+	}
+
+	@Test
+	public void rejectsBadDataLength() throws IOException {
+		assertCorrupt(with(TABLE + 12, 1000), "truncated or corrupt");
+		assertCorrupt(with(TABLE + 12, -1), "truncated or corrupt");
+	}
+
+	@Test
+	public void rejectsBadOffsetsWhenRead() throws IOException {
+		//Option 2 would end before it starts
+		Files.write(file, with(TABLE + 4, 7));
+		OptionSource options = MenuFile.open(file).getDefinition().getOptionSource();
+
+		assertEquals("onetwot", options.get(0));
+		assertCorrupt(options, 1);
+		assertEquals("three", options.get(2));
+
+		Files.write(file, with(TABLE, -1));
+		assertCorrupt(MenuFile.open(file).getDefinition().getOptionSource(), 0);
+	}
+
+	@Test(expected = UncheckedIOException.class)
+	public void rejectsBadOffsetsWhenConverted() throws IOException {
+		Files.write(file, with(TABLE + 8, 12));
+		MenuFile.open(file).toMenu();
+	}
+
+	@Test
+	public void rejectsTruncatedFile() throws IOException {
+		for (int length = 0; length < bytes.length; length++) {
+			Files.write(file, Arrays.copyOf(bytes, length));
+			try {
+				MenuFile.open(file);
+				fail("Opened a file truncated to " + length + " bytes.");
+			} catch (IOException e) {
+				//Expected
+			}
+		}
+	}
+
+	@Test(expected = InvalidMemberException.class)
+	public void rejectsNegativeOptionCount() throws IOException {
+		Files.write(file, with(8, -1));
+		MenuFile.open(file);
+	}
+
+	private static void assertCorrupt(OptionSource options, int index) {
+		try {
+			options.get(index);
+			fail("Read a corrupt option.");
+		} catch (UncheckedIOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("truncated or corrupt"));
+		}
+	}
+
+	private byte[] with(int position, int value) {
+		byte[] ret = bytes.clone();
+		ByteBuffer.wrap(ret).putInt(position, value);
+		return ret;
+	}
+
+	private void assertCorrupt(byte[] content, String message) throws IOException {
+		Files.write(file, content);
+		try {
+			MenuFile.open(file);
+			fail("Opened a corrupt file.");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.github.HotPocketAdventure.util.exceptions.InvalidMemberException;
+
+/**
+ * Checks the streaming JSON reader and writer of {@link MenuJson}.
+ * @author Michael Bradley
+ *
+ */
+public class MenuJsonTest {
+
+	private static Menu read(String json) {
+		return MenuJson.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void roundTrips() {
+		Menu menu = new Menu("Té", new String[] {"a", "b \"q\"", "c"}, true, 0, "Exit", "Y", "N");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MenuJson.write(out, menu);
+
+		Menu read = MenuJson.read(new ByteArrayInputStream(out.toByteArray()));
+		assertArrayEquals(menu.getOptions(), read.getOptions());
+		assertEquals(menu.toString(true), read.toString(true));
+	}
+
+	@Test
+	public void infersMissingOptionCount() {
+		assertEquals(2, read("{\"title\":\"t\",\"options\":[\"a\",\"b\"]}").getNumOptions());
+	}
+
+	@Test
+	public void skipsUnknownMembers() {
+		Menu menu = read("{\"extra\":{\"nested\":[1,{\"x\":null}]},\"title\":\"t\",\"options\":[\"a\"],\"more\":[[]]}");
+
+		assertEquals("t", menu.getTitle());
+		assertArrayEquals(new String[] {"a"}, menu.getOptions());
+	}
+
+	@Test
+	public void readsLargeArrays() {
+		StringBuilder json = new StringBuilder("{\"title\":\"t\",\"numOptions\":5000,\"options\":[");
+		for (int i = 0; i < 5000; i++) {
+			json.append(i == 0 ? "" : ",").append('"').append(i).append('"');
+		}
+		json.append("]}");
+
+		Menu menu = read(json.toString());
+		assertEquals(5000, menu.getNumOptions());
+		assertEquals("4999", menu.getOptionAt(4999));
+	}
+
+	@Test(expected = InvalidMemberException.class)
+	public void rejectsNegativeOptionCount() {
+		read("{\"title\":\"t\",\"numOptions\":-1,\"options\":[]}");
+	}
+
+	@Test(expected = InvalidMemberException.class)
+	public void rejectsHugeOptionCount() {
+		read("{\"title\":\"t\",\"numOptions\":2147483647,\"options\":[\"a\"]}");
+	}
+
+	@Test(expected = InvalidMemberException.class)
+	public void rejectsMismatchedOptionCount() {
+		read("{\"title\":\"t\",\"numOptions\":3,\"options\":[\"a\",\"b\"]}");
+	}
+}
@@ -0,0 +1,89 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.json.JsonException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that {@link MenuLoader} loads every valid file of a directory and records each broken one without stopping.
+ * @author Michael Bradley
+ *
+ */
+public class MenuLoaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+
+	@Before
+	public void writeFiles() throws IOException {
+		directory = folder.getRoot().toPath();
+		Files.createDirectory(directory.resolve("sub"));
+
+		Menu menu = new Menu("Title", new String[] {"a", "b"}, true, 0, "Exit");
+		Menu.saveToFile(directory.resolve("good" + MenuLoader.JSON_EXTENSION).toString(), menu);
+		menu.setChosenAt(1, true);
+		MenuFile.write(directory.resolve("sub").resolve("good" + MenuFile.EXTENSION), menu, true);
+
+		//A title length of -5
+		Path corrupt = directory.resolve("corrupt" + MenuFile.EXTENSION);
+		MenuFile.write(corrupt, menu, false);
+		byte[] bytes = Files.readAllBytes(corrupt);
+		ByteBuffer.wrap(bytes).putInt(16, -5);
+		Files.write(corrupt, bytes);
+
+		Files.write(directory.resolve("broken" + MenuLoader.JSON_EXTENSION), "{\"title\":".getBytes(StandardCharsets.UTF_8));
+		Files.write(directory.resolve("notes.txt"), "not a menu".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void recordsBrokenFilesAndLoadsTheRest() throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		LoadReport report;
+		try {
+			report = MenuLoader.loadDirectory(directory, pool);
+		} finally {
+			pool.shutdown();
+		}
+
+		assertEquals(4, report.getTotal());
+		assertFalse(report.isComplete());
+
+		assertArrayEquals(new Path[] {directory.resolve("good" + MenuLoader.JSON_EXTENSION), directory.resolve("sub").resolve("good" + MenuFile.EXTENSION)},
+				report.getMenus().keySet().toArray());
+		for (Menu menu : report.getMenus().values()) {
+			assertArrayEquals(new String[] {"a", "b"}, menu.getOptions());
+		}
+
+		//Binary files keep their chosen flags
+		Menu binary = report.getMenus().get(directory.resolve("sub").resolve("good" + MenuFile.EXTENSION));
+		assertFalse(binary.isChosenAt(0));
+		assertTrue(binary.isChosenAt(1));
+		assertFalse(report.getMenus().get(directory.resolve("good" + MenuLoader.JSON_EXTENSION)).isChosenAt(1));
+
+		assertTrue(report.getErrors().get(directory.resolve("corrupt" + MenuFile.EXTENSION)) instanceof IOException);
+		assertTrue(report.getErrors().get(directory.resolve("broken" + MenuLoader.JSON_EXTENSION)) instanceof JsonException);
+	}
+
+	@Test(expected = NotDirectoryException.class)
+	public void rejectsFiles() throws IOException {
+		MenuLoader.loadDirectory(directory.resolve("notes.txt"));
+	}
+}
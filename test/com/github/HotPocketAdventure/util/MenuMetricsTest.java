@@ -0,0 +1,158 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Checks {@link LatencyHistogram} and the measurements and Flight Recorder events of {@link MenuMetrics}.
+ * @author Michael Bradley
+ *
+ */
+public class MenuMetricsTest {
+
+	@After
+	public void disable() {
+		MenuMetrics.disable();
+	}
+
+	@Test
+	public void histogramIsExactForSmallValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 50; i++) {
+			histogram.record(i);
+		}
+		histogram.record(-5);
+
+		assertEquals(51, histogram.getCount());
+		assertEquals(50, histogram.getMax());
+		assertEquals(1275 / 51.0, histogram.getMean(), 1e-9);
+		assertEquals(0, histogram.getValueAtPercentile(0));
+		assertEquals(25, histogram.getValueAtPercentile(50));
+		assertEquals(50, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void histogramStaysWithinItsPrecision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		long[] values = {100, 1000, 12345, 999999, 123456789, 98765432123L, Long.MAX_VALUE / 3};
+
+		for (long value : values) {
+			histogram.reset();
+			histogram.record(value);
+			histogram.record(value * 2 / 3);
+
+			long p0 = histogram.getValueAtPercentile(0);
+			assertTrue(value + ": " + p0, Math.abs(p0 - value * 2 / 3) <= value * 2 / 3 / 32);
+			assertEquals(value, histogram.getValueAtPercentile(100));
+			assertEquals(value, histogram.getMax());
+		}
+	}
+
+	@Test
+	public void resetClearsEverything() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1000);
+
+		histogram.reset();
+
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getMean(), 0);
+		assertEquals(0, histogram.getValueAtPercentile(99));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsPercentilesOutOfRange() {
+		new LatencyHistogram().getValueAtPercentile(100.5);
+	}
+
+	private static Menu menu() {
+		return new Menu("t", new String[] {"a", "b", "c"}, true, 0, "Exit", "Y", "N");
+	}
+
+	private static void exercise() {
+		Menu menu = menu();
+		menu.setConsole(new MenuConsole(new ByteArrayInputStream("x\n2\n".getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream()));
+		menu.getInput(true);
+		menu.toString(true);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Menu.saveToStream(out, menu);
+		Menu.loadFromStream(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	@Test
+	public void recordsOnlyWhileEnabled() {
+		exercise();
+		assertNull(MenuMetrics.get());
+
+		MenuMetrics metrics = MenuMetrics.enable(false);
+		assertSame(metrics, MenuMetrics.get());
+		assertFalse(metrics.isRecordingEvents());
+		exercise();
+		MenuMetrics.disable();
+		exercise();
+
+		assertEquals(1, metrics.getThinkTime().getCount());
+		assertEquals(1, metrics.getSave().getCount());
+		assertEquals(1, metrics.getLoad().getCount());
+		assertEquals(1, metrics.getRender().getCount());
+		assertTrue(metrics.toString().startsWith("render: count "));
+	}
+
+	@Test
+	public void eventsLastAsLongAsTheWork() throws Exception {
+		assumeTrue(MenuMetrics.isFlightRecorderAvailable());
+		String[] names = {"MenuRender", "MenuThinkTime", "MenuLoad", "MenuSave"};
+		Path file = Files.createTempFile("menu", ".jfr");
+
+		try (Recording recording = new Recording()) {
+			for (String name : names) {
+				recording.enable("com.github.HotPocketAdventure." + name).withThreshold(Duration.ZERO);
+			}
+			recording.start();
+			assertTrue(MenuMetrics.enable(true).isRecordingEvents());
+			exercise();
+			MenuMetrics.disable();
+			recording.stop();
+			recording.dump(file);
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+			Map<String, RecordedEvent> byName = new HashMap<>();
+			for (RecordedEvent event : events) {
+				byName.put(event.getEventType().getName(), event);
+			}
+
+			for (String name : names) {
+				RecordedEvent event = byName.get("com.github.HotPocketAdventure." + name);
+				assertTrue(name + " was not committed", event != null);
+				assertTrue(name + " has no duration", event.getDuration().toNanos() > 0);
+			}
+			assertEquals(2, byName.get("com.github.HotPocketAdventure.MenuThinkTime").getInt("choice"));
+			assertEquals(3, byName.get("com.github.HotPocketAdventure.MenuLoad").getInt("numOptions"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
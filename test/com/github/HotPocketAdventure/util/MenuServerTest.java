@@ -0,0 +1,171 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Drives {@link MenuServer} with real loopback clients.
+ * @author Michael Bradley
+ *
+ */
+public class MenuServerTest {
+
+	private static final long TIMEOUT = 10000;
+
+	private MenuServer server;
+	private ExecutorService clients;
+
+	@Before
+	public void startServer() throws IOException {
+		MenuDefinition definition = new MenuDefinition("Served", new String[] {"a", "b"}, true, 0, "Leave", "Y", "N");
+		server = MenuServer.openLoopback(0, definition, true).start();
+		clients = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void stopServer() throws IOException {
+		clients.shutdownNow();
+		server.close();
+	}
+
+	private String converse(String input) throws IOException {
+		try (Socket socket = new Socket()) {
+			socket.connect(server.getLocalAddress());
+			socket.setSoTimeout((int) TIMEOUT);
+			socket.getOutputStream().write(input.getBytes(StandardCharsets.US_ASCII));
+			socket.getOutputStream().flush();
+
+			//The server closes the connection once the exit option is chosen
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			InputStream in = socket.getInputStream();
+			byte[] buffer = new byte[1024];
+			int n;
+			while ((n = in.read(buffer)) >= 0) {
+				out.write(buffer, 0, n);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private void awaitNoSessions() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (server.getActiveSessions() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, server.getActiveSessions());
+	}
+
+	@Test
+	public void servesSessionsWithTheirOwnChoices() throws Exception {
+		final AtomicInteger choices = new AtomicInteger();
+		server.setListener(new MenuServer.SessionListener() {
+			@Override
+			public void choiceMade(MenuSession session) {
+				choices.incrementAndGet();
+			}
+		});
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			final String input = i % 2 == 0 ? "1\n0\n" : "x\n2\n2\n0\n";
+			results.add(clients.submit(new Callable<String>() {
+				@Override
+				public String call() throws IOException {
+					return converse(input);
+				}
+			}));
+		}
+
+		for (int i = 0; i < results.size(); i++) {
+			String output = results.get(i).get();
+			assertTrue(output, output.startsWith("Served\n------\n1. a - N\n2. b - N\n0. Leave\n"));
+			if (i % 2 == 0) {
+				assertTrue(output, output.contains("1. a - Y\n2. b - N"));
+			} else {
+				assertTrue(output, output.contains("1. a - N\n2. b - Y"));
+			}
+		}
+
+		awaitNoSessions();
+		assertEquals(4 * 2 + 4 * 3, choices.get());
+	}
+
+	@Test
+	public void listenerExceptionsDoNotEndSessions() throws Exception {
+		final AtomicInteger choices = new AtomicInteger();
+		server.setListener(new MenuServer.SessionListener() {
+			@Override
+			public void choiceMade(MenuSession session) {
+				choices.incrementAndGet();
+				throw new IllegalStateException("Thrown by the test listener.");
+			}
+		});
+
+		Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+		final AtomicInteger uncaught = new AtomicInteger();
+		Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(Thread t, Throwable e) {
+				uncaught.incrementAndGet();
+			}
+		});
+
+		try {
+			String output = converse("1\n2\n0\n");
+
+			assertTrue(output, output.contains("1. a - Y\n2. b - Y"));
+			awaitNoSessions();
+			assertEquals(3, choices.get());
+			assertEquals(3, uncaught.get());
+		} finally {
+			Thread.setDefaultUncaughtExceptionHandler(previous);
+		}
+	}
+
+	@Test
+	public void disconnectEndsSession() throws Exception {
+		try (Socket socket = new Socket()) {
+			socket.connect(server.getLocalAddress());
+			socket.getOutputStream().write("1\n".getBytes(StandardCharsets.US_ASCII));
+		}
+
+		awaitNoSessions();
+	}
+
+	@Test
+	public void stopsAcceptingWhenClosed() throws Exception {
+		InetSocketAddress address = (InetSocketAddress) server.getLocalAddress();
+		server.close();
+
+		//The listening socket is released once the accepting thread wakes up, so connections may succeed briefly
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (System.currentTimeMillis() < deadline) {
+			try (Socket socket = new Socket()) {
+				socket.connect(address, (int) TIMEOUT);
+			} catch (IOException e) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		fail("Still connecting to a closed server.");
+	}
+}
@@ -0,0 +1,269 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.github.HotPocketAdventure.util.exceptions.InvalidMemberException;
+
+/**
+ * Checks that {@link MenuSession}s of one shared {@link MenuDefinition} keep their own choice state and display like a {@link Menu}.
+ * @author Michael Bradley
+ *
+ */
+public class MenuSessionTest {
+
+	private static final String[] OPTIONS = {"a", "b", "c"};
+
+	private static MenuDefinition definition() {
+		return new MenuDefinition("Title", OPTIONS, true, 0, "Exit", "Y", "N");
+	}
+
+	private static MenuConsole console(String input, OutputStream out) {
+		return new MenuConsole(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+	}
+
+	@Test
+	public void displaysLikeMenu() {
+		MenuDefinition definition = definition();
+		Menu menu = definition.toMenu();
+		MenuSession session = definition.newSession();
+		session.setChosenAt(1, true);
+		menu.setChosenAt(1, true);
+
+		assertEquals(menu.toString(), session.toString());
+		assertEquals(menu.toString(true), session.toString(true));
+		assertSame(definition.toString(), session.toString());
+	}
+
+	@Test
+	public void sessionsKeepTheirOwnChoices() {
+		MenuDefinition definition = definition();
+		MenuSession first = definition.newSession();
+		MenuSession second = definition.newSession();
+
+		first.setConsole(console("2\n3\n", new ByteArrayOutputStream())).getInput(true).getInput(true);
+		second.setConsole(console("0\n", new ByteArrayOutputStream())).getInput(true);
+
+		assertEquals(3, first.getChoice());
+		assertEquals(2, first.getLastChoice());
+		assertArrayEquals(new boolean[] {false, true, true}, first.getChosen());
+		assertEquals(2, first.getNumChosen());
+		assertTrue(second.didChooseExit());
+		assertEquals(0, second.getNumChosen());
+		assertEquals(3, second.getNumUnchosen());
+
+		first.reset();
+		assertEquals(-1, first.getChoice());
+		assertFalse(first.isChosenAt(1));
+	}
+
+	@Test
+	public void completesWithoutChoosing() {
+		MenuSession session = definition().newSession();
+
+		assertFalse(session.isComplete());
+		session.setComplete(true);
+		assertTrue(session.isComplete());
+		assertEquals(3, session.getNumChosen());
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void rejectsIndexBeforeFirstChoice() {
+		definition().newSession().isChosenAt(3);
+	}
+
+	@Test
+	public void definitionCopiesOptions() {
+		String[] options = OPTIONS.clone();
+		MenuDefinition definition = new MenuDefinition("t", options, false, 0, null, null, null);
+		options[0] = "changed";
+
+		assertEquals("a", definition.getOptionAt(0));
+		assertEquals("", definition.getExitText());
+
+		Menu menu = new Menu("t", OPTIONS.clone());
+		MenuDefinition fromMenu = new MenuDefinition(menu);
+		menu.setOptionAt(0, "changed");
+		assertEquals("a", fromMenu.getOptionAt(0));
+	}
+
+	@Test(expected = InvalidMemberException.class)
+	public void definitionRejectsExitAmongOptions() {
+		new MenuDefinition("t", OPTIONS, true, 2, "Exit", "", "");
+	}
+
+	@Test(expected = InvalidMemberException.class)
+	public void definitionRejectsNoWayOut() {
+		new MenuDefinition("t", new String[0], false, 0, "Exit", "", "");
+	}
+
+	@Test
+	public void displayWritesOnce() {
+		String[] options = new String[50];
+		for (int i = 0; i < options.length; i++) {
+			options[i] = "Option " + i;
+		}
+		CountingStream out = new CountingStream();
+		MenuSession session = new MenuDefinition("t", options, true, 0, "Exit", "Y", "N").newSession().setConsole(console("", out));
+
+		session.display(true);
+		assertEquals(1, out.writes);
+		session.display(false);
+		assertEquals(2, out.writes);
+
+		String text = new String(out.bytes.toByteArray(), StandardCharsets.UTF_8);
+		assertEquals(session.toString(true) + "\n" + session.toString(false) + "\n", text.replace(System.lineSeparator(), "\n"));
+	}
+
+	/**
+	 * Counts the writes that reach the stream under the console's buffer.
+	 */
+	private static final class CountingStream extends OutputStream {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		int writes;
+
+		@Override
+		public void write(int b) {
+			writes++;
+			bytes.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			writes++;
+			bytes.write(b, off, len);
+		}
+	}
+
+	private static MenuDefinition numbered(int numOptions) {
+		String[] options = new String[numOptions];
+		for (int i = 0; i < numOptions; i++) {
+			options[i] = "Option " + (i + 1);
+		}
+		return new MenuDefinition("t", options, true, 0, "Exit", "Y", "N");
+	}
+
+	@Test
+	public void displaysOnePage() {
+		MenuSession session = numbered(5).newSession().setPageSize(2);
+
+		assertEquals(3, session.getNumPages());
+		assertEquals("t\n-\n1. Option 1\n2. Option 2\n0. Exit\nPage 1 of 3 - n: next, p: previous, g #: go to page\n", session.toString());
+		session.setPage(2);
+		assertEquals("t\n-\n5. Option 5\n0. Exit\nPage 3 of 3 - n: next, p: previous, g #: go to page\n", session.toString());
+
+		session.nextPage();
+		assertEquals(2, session.getPage());
+		session.setPage(-4);
+		assertEquals(0, session.getPage());
+		session.previousPage();
+		assertEquals(0, session.getPage());
+
+		session.setPageSize(0);
+		assertEquals(1, session.getNumPages());
+		assertEquals(numbered(5).toString(), session.toString());
+	}
+
+	@Test
+	public void navigatesFromInput() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MenuSession session = numbered(10).newSession().setPageSize(3).setConsole(console("n N p g 4\nx 10\n", out));
+
+		session.getInput();
+
+		assertEquals(10, session.getChoice());
+		assertEquals(3, session.getPage());
+		String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(text, text.contains("4. Option 4\n5. Option 5\n6. Option 6\n0. Exit\nPage 2 of 4"));
+		assertTrue(text, text.contains("7. Option 7\n8. Option 8\n9. Option 9\n0. Exit\nPage 3 of 4"));
+		assertTrue(text, text.contains("10. Option 10\n0. Exit\nPage 4 of 4"));
+		assertFalse(text, text.contains("Page ("));
+	}
+
+	@Test
+	public void promptsForPageNumber() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MenuSession session = numbered(10).newSession().setPageSize(3).setConsole(console("g\n2\n0\n", out));
+
+		session.getInput();
+
+		assertEquals(1, session.getPage());
+		assertTrue(session.didChooseExit());
+		assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).contains("Enter: Page (1-4): "));
+	}
+
+	@Test
+	public void navigationWordsAreInvalidWithoutPaging() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MenuSession session = numbered(10).newSession().setConsole(console("n 2\n", out));
+
+		session.getInput();
+
+		assertEquals(0, session.getPage());
+		assertEquals(2, session.getChoice());
+	}
+
+	@Test
+	public void pagesOptionsReadOnDemand() {
+		final AtomicInteger reads = new AtomicInteger();
+		OptionSource source = new OptionSource() {
+			@Override
+			public int size() {
+				return 1000000;
+			}
+
+			@Override
+			public String get(int index) {
+				reads.incrementAndGet();
+				return "Option " + (index + 1);
+			}
+		};
+		MenuSession session = new MenuDefinition("t", source, true, 0, "Exit", "", "").newSession();
+
+		assertEquals(MenuSession.DEFAULT_PAGE_SIZE, session.getPageSize());
+		session.setPage(49999);
+		String text = session.toString();
+
+		assertTrue(text, text.startsWith("t\n-\n999981. Option 999981\n"));
+		assertTrue(text, text.contains("Page 50000 of 50000"));
+		assertEquals(MenuSession.DEFAULT_PAGE_SIZE, reads.get());
+	}
+
+	@Test
+	public void searchesFromInput() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MenuSession session = numbered(300).newSession().setConsole(console("/option 25\n250\n", out));
+
+		session.getInput();
+
+		assertEquals(250, session.getChoice());
+		assertEquals("option 25", session.getQuery());
+		assertArrayEquals(new int[] {25, 250, 251, 252}, Arrays.copyOf(session.getMatches(), 4));
+		String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(text, text.contains("t\n-\n25. Option 25\n250. Option 250\n"));
+		assertTrue(text, text.contains(" matches for \"option 25\" - /: show all options\n"));
+
+		session.setConsole(console("/\n1\n", new ByteArrayOutputStream())).getInput();
+		assertNull(session.getMatches());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNegativePageSize() {
+		definition().newSession().setPageSize(-1);
+	}
+}
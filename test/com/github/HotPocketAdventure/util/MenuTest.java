@@ -0,0 +1,181 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Checks that the cached menu text of {@link Menu} is reused until something it displays changes, that every way of rendering it writes the same text,
+ * and that copies sharing its arrays never show each other's changes.
+ * @author Michael Bradley
+ *
+ */
+public class MenuTest {
+
+	private static Menu menu() {
+		return new Menu("Title", new String[] {"a", "b", "c"}, true, 0, "Exit", "Y", "N");
+	}
+
+	@Test
+	public void reusesCachedText() {
+		Menu menu = menu();
+
+		assertSame(menu.toString(), menu.toString());
+		assertSame(menu.toString(true), menu.toString(true));
+		assertEquals("Title\n-----\n1. a\n2. b\n3. c\n0. Exit\n", menu.toString());
+	}
+
+	@Test
+	public void settersDiscardCachedText() {
+		Menu menu = menu();
+		String before = menu.toString();
+
+		menu.setTitle("Other");
+		assertTrue(menu.toString().startsWith("Other"));
+		menu.setOptionAt(1, "renamed");
+		assertTrue(menu.toString().contains("2. renamed"));
+		menu.setExitText("Leave");
+		assertTrue(menu.toString().contains("0. Leave"));
+		menu.setExitAllowed(false);
+		assertEquals("Other\n-----\n1. a\n2. renamed\n3. c\n", menu.toString());
+		assertNotSame(before, menu.toString());
+	}
+
+	@Test
+	public void chosenChangesKeepPlainText() {
+		Menu menu = menu();
+		String plain = menu.toString();
+		String chosen = menu.toString(true);
+
+		menu.setChosenAt(1, true);
+
+		assertSame(plain, menu.toString());
+		assertNotSame(chosen, menu.toString(true));
+		assertTrue(menu.toString(true).contains("2. b - Y"));
+	}
+
+	@Test
+	public void writesThroughGetOptionsAreRendered() {
+		Menu menu = menu();
+		assertTrue(menu.toString().contains("a"));
+
+		menu.getOptions()[0] = "changed";
+
+		assertTrue(menu.toString().contains("changed"));
+		assertTrue(menu.toString(true).contains("changed"));
+	}
+
+	@Test
+	public void renderingMatchesToString() throws IOException {
+		Menu menu = new Menu("Tïtle", new String[] {"a", "b😀", "c"}, true, 0, "Exit", "Y", "N");
+		menu.setChosenAt(2, true);
+
+		StringBuilder builder = new StringBuilder();
+		menu.renderTo(builder, true);
+		assertEquals(menu.toString(true), builder.toString());
+
+		//Once without and once with the text cached
+		for (int i = 0; i < 2; i++) {
+			menu.invalidateRender();
+			menu.toString(i == 1);
+
+			StringWriter writer = new StringWriter();
+			menu.renderTo(writer, true);
+			assertEquals(menu.toString(true), writer.toString());
+
+			ByteBuffer buffer = ByteBuffer.allocate(256);
+			menu.renderTo(buffer, StandardCharsets.UTF_8, true);
+			assertEquals(menu.toString(true), new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void renderingOverflowsSmallBuffers() {
+		menu().renderTo(ByteBuffer.allocate(8), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void copiesDoNotShareChanges() {
+		Menu template = menu();
+		Menu copy = new Menu(template);
+		Menu other = new Menu(template);
+
+		copy.setOptionAt(0, "renamed");
+		copy.setChosenAt(1, true);
+		other.getOptions()[2] = "y";
+
+		assertArrayEquals(new String[] {"a", "b", "c"}, template.getOptions());
+		assertFalse(template.isChosenAt(1));
+		assertFalse(other.isChosenAt(1));
+		assertEquals("renamed", copy.getOptionAt(0));
+		assertEquals("c", copy.getOptionAt(2));
+		assertTrue(copy.toString().contains("renamed"));
+		assertFalse(template.toString().contains("renamed"));
+	}
+
+	@Test
+	public void sourceChangesDoNotReachCopies() {
+		Menu template = menu();
+		Menu copy = new Menu(template);
+		Menu copyOfCopy = new Menu(copy);
+
+		template.setOptionAt(1, "renamed");
+		template.setChosenAt(0, true);
+		copy.setChosenAt(2, true);
+
+		assertEquals("b", copy.getOptionAt(1));
+		assertEquals("b", copyOfCopy.getOptionAt(1));
+		assertFalse(copy.isChosenAt(0));
+		assertFalse(copyOfCopy.isChosenAt(2));
+		assertTrue(template.isChosenAt(0));
+		assertFalse(template.isChosenAt(2));
+	}
+
+	@Test
+	public void copyingOverSharedArraysReleasesThem() {
+		Menu template = menu();
+		Menu copy = new Menu(template);
+
+		copy.copy(menu());
+		template.setOptionAt(0, "renamed");
+		copy.setOptionAt(0, "other");
+
+		assertEquals("renamed", template.getOptionAt(0));
+		assertEquals("other", copy.getOptionAt(0));
+	}
+
+	@Test
+	public void handedOutOptionsDoNotReachLaterCopies() {
+		Menu template = menu();
+		String[] options = template.getOptions();
+		Menu copy = new Menu(template);
+		Menu copyOfCopy = new Menu(copy);
+
+		options[0] = "X";
+
+		assertEquals("X", template.getOptionAt(0));
+		assertEquals("a", copy.getOptionAt(0));
+		assertEquals("a", copyOfCopy.getOptionAt(0));
+	}
+
+	@Test
+	public void copiesShareOptionsAgainOnceReplaced() {
+		Menu template = menu();
+		template.getOptions();
+		template.setOptions(new String[] {"d", "e", "f"});
+		Menu copy = new Menu(template);
+
+		assertSame(template.options, copy.options);
+	}
+}
@@ -0,0 +1,149 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks navigation, lazy loading and listener dispatch of {@link MenuTree}.
+ * @author Michael Bradley
+ *
+ */
+public class MenuTreeTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Menu menu(String title) {
+		return new Menu(title, new String[] {"one", "two"}, true, 0, "Back");
+	}
+
+	@Test
+	public void entersAndLeavesChildren() throws FileNotFoundException {
+		MenuTree tree = new MenuTree(menu("root"));
+		int child = tree.addChild(0, 1, menu("child"));
+		int grandchild = tree.addChild(child, 2, menu("grandchild"));
+
+		assertEquals(child, tree.getChild(0, 1));
+		assertEquals(MenuTree.NONE, tree.getChild(0, 2));
+		assertEquals(MenuTree.NONE, tree.getChild(0, 99));
+
+		assertTrue(tree.follow(1));
+		assertTrue(tree.follow(2));
+		assertEquals(grandchild, tree.getCurrentNode());
+		assertEquals(2, tree.getDepth());
+		assertEquals("grandchild", tree.getCurrentMenu().getTitle());
+
+		assertTrue(tree.follow(0));
+		assertEquals(child, tree.getCurrentNode());
+		assertTrue(tree.follow(0));
+		assertEquals(0, tree.getCurrentNode());
+		assertFalse(tree.follow(0));
+	}
+
+	@Test
+	public void sharesNodesAndGrowsDeep() throws FileNotFoundException {
+		MenuTree tree = new MenuTree(menu("root"));
+		int loop = tree.addChild(0, 1, menu("loop"));
+		tree.link(loop, 1, loop);
+
+		tree.follow(1);
+		for (int i = 0; i < 100; i++) {
+			tree.follow(1);
+		}
+		assertEquals(101, tree.getDepth());
+		assertEquals(loop, tree.getCurrentNode());
+
+		tree.link(loop, 1, MenuTree.NONE);
+		assertEquals(MenuTree.NONE, tree.getChild(loop, 1));
+		tree.reset();
+		assertEquals(0, tree.getDepth());
+	}
+
+	@Test
+	public void tellsListenerAboutLeaves() throws FileNotFoundException {
+		final List<String> seen = new ArrayList<>();
+		MenuTree tree = new MenuTree(menu("root"));
+		tree.addChild(0, 1, menu("child"));
+		tree.setListener(new MenuTree.ChoiceListener() {
+			@Override
+			public void choiceMade(MenuTree t, int node, Menu menu) {
+				seen.add(node + " " + menu.getTitle());
+			}
+		});
+
+		tree.follow(2);
+		tree.follow(1);
+		tree.follow(2);
+
+		assertEquals(2, seen.size());
+		assertEquals("0 root", seen.get(0));
+		assertEquals("1 child", seen.get(1));
+	}
+
+	@Test
+	public void loadsFilesOnFirstEntry() throws IOException {
+		String path = folder.getRoot().toPath().resolve("child.json").toString();
+		Menu.saveToFile(path, menu("from file"));
+
+		Menu root = menu("root");
+		MenuTree tree = new MenuTree(root);
+		int child = tree.addChild(0, 2, path);
+
+		assertFalse(tree.isLoaded(child));
+		tree.follow(2);
+		Menu loaded = tree.getCurrentMenu();
+		assertTrue(tree.isLoaded(child));
+		assertEquals("from file", loaded.getTitle());
+		assertSame(root.getConsole(), loaded.getConsole());
+		assertSame(loaded, tree.getMenu(child));
+	}
+
+	@Test(expected = FileNotFoundException.class)
+	public void failsOnMissingFile() throws FileNotFoundException {
+		MenuTree tree = new MenuTree(menu("root"));
+		tree.addChild(0, 1, folder.getRoot().toPath().resolve("missing.json").toString());
+
+		tree.follow(1);
+		tree.getCurrentMenu();
+	}
+
+	@Test
+	public void runsFromConsole() throws FileNotFoundException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Menu root = menu("root");
+		root.setConsole(new MenuConsole(new ByteArrayInputStream("1 2 0 0".getBytes(StandardCharsets.US_ASCII)), out));
+		MenuTree tree = new MenuTree(root);
+		Menu child = tree.getMenu(tree.addChild(0, 1, menu("child")));
+		child.setConsole(root.getConsole());
+
+		tree.run(false, true);
+
+		assertEquals(0, tree.getCurrentNode());
+		assertTrue(child.isChosenAt(1));
+		assertTrue(new String(out.toByteArray(), StandardCharsets.US_ASCII).contains("child\n-----\n"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsInvalidChoice() throws FileNotFoundException {
+		new MenuTree(menu("root")).follow(3);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void rejectsUnknownNode() {
+		new MenuTree(menu("root")).link(0, 1, 5);
+	}
+}
@@ -0,0 +1,142 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link Menu} dispatches choices to the {@link OptionHandler} of the chosen option, on the caller's thread or its executor.
+ * @author Michael Bradley
+ *
+ */
+public class OptionHandlerTest {
+
+	private static Menu menu() {
+		return new Menu("t", new String[] {"a", "b", "c"}, true, 0, "Exit");
+	}
+
+	/**
+	 * Records each choice it is called with.
+	 */
+	private static final class Recorder implements OptionHandler {
+		final List<Integer> choices = new ArrayList<>();
+		Thread thread;
+
+		@Override
+		public void optionChosen(Menu menu, int choice) {
+			choices.add(choice);
+			thread = Thread.currentThread();
+		}
+	}
+
+	/**
+	 * Holds tasks until they are run by the test.
+	 */
+	private static final class QueueExecutor implements Executor {
+		final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		void runAll() {
+			for (Runnable task : tasks) {
+				task.run();
+			}
+			tasks.clear();
+		}
+	}
+
+	@Test
+	public void dispatchesToTheChosenOption() {
+		Menu menu = menu();
+		Recorder second = new Recorder();
+		Recorder exit = new Recorder();
+		menu.setHandlerAt(1, second).setExitHandler(exit, false);
+
+		menu.replay(new int[] {1, 2, 3, 2, 0}, false);
+
+		assertEquals(2, second.choices.size());
+		assertEquals(Integer.valueOf(2), second.choices.get(0));
+		assertSame(Thread.currentThread(), second.thread);
+		assertEquals(1, exit.choices.size());
+		assertNull(menu.getHandled());
+	}
+
+	@Test
+	public void runsAsyncHandlersOnTheExecutor() {
+		Menu menu = menu();
+		QueueExecutor executor = new QueueExecutor();
+		Recorder handler = new Recorder();
+		menu.setExecutor(executor).setHandlerAt(2, handler, true);
+		menu.setConsole(new MenuConsole(new ByteArrayInputStream("3\n".getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream()));
+
+		menu.getInput();
+		CompletableFuture<Void> handled = menu.getHandled();
+
+		assertTrue(handler.choices.isEmpty());
+		assertFalse(handled.isDone());
+		executor.runAll();
+		assertTrue(handled.isDone());
+		assertEquals(Integer.valueOf(3), handler.choices.get(0));
+	}
+
+	@Test
+	public void handleLeavesChoiceAlone() {
+		Menu menu = menu();
+		Recorder handler = new Recorder();
+		menu.setHandlerAt(0, handler);
+
+		assertTrue(menu.handle(1).isDone());
+		assertTrue(menu.handle(2).isDone());
+		assertEquals(1, handler.choices.size());
+		assertEquals(-1, menu.getChoice());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void syncHandlerExceptionsReachTheCaller() {
+		Menu menu = menu();
+		menu.setHandlerAt(0, new OptionHandler() {
+			@Override
+			public void optionChosen(Menu m, int choice) {
+				throw new IllegalStateException("Thrown by the test handler.");
+			}
+		});
+
+		menu.replay(new int[] {1}, false);
+	}
+
+	@Test
+	public void removesAndCopiesHandlers() {
+		Menu menu = menu();
+		Recorder handler = new Recorder();
+		menu.setHandlerAt(0, handler);
+		Menu copy = new Menu(menu);
+
+		menu.setHandlerAt(0, null);
+		menu.replay(new int[] {1}, false);
+		copy.replay(new int[] {1}, false);
+
+		assertNull(menu.getHandlerAt(0));
+		assertSame(handler, copy.getHandlerAt(0));
+		assertEquals(1, handler.choices.size());
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void rejectsIndexPastTheOptions() {
+		menu().setHandlerAt(3, new Recorder());
+	}
+}
@@ -0,0 +1,129 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Checks {@link OptionIndex} rankings against a brute force scan of every option.
+ * @author Michael Bradley
+ *
+ */
+public class OptionIndexTest {
+
+	private static final String[] WORDS = {"apple", "banana", "cherry", "grape", "lemon", "mango", "orange", "peach", "pear", "plum"};
+
+	@Test
+	public void matchesBruteForce() {
+		Random random = new Random(2);
+		String[] options = new String[5000];
+		for (int i = 0; i < options.length; i++) {
+			options[i] = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(500);
+		}
+		OptionIndex index = new OptionIndex(new MenuDefinition("t", options, false, 0, "", "", "").getOptionSource());
+
+		for (int t = 0; t < 300; t++) {
+			String base = options[random.nextInt(options.length)];
+			int start = random.nextInt(base.length());
+			String query = base.substring(start, Math.min(base.length(), start + 1 + random.nextInt(12)));
+			if (random.nextBoolean() && query.length() > 3) {
+				query = query.substring(0, 2) + "x" + query.substring(3);
+			}
+			int limit = 1 + random.nextInt(30);
+
+			assertArrayEquals(query + " limit " + limit, bruteForce(options, query, limit), index.search(query, limit));
+		}
+	}
+
+	@Test
+	public void ignoresCase() {
+		OptionIndex index = new OptionIndex(new MenuDefinition("t", new String[] {"Back", "Settings", "BACKUP"}, false, 0, "", "", "").getOptionSource());
+
+		assertArrayEquals(new int[] {1, 3}, index.search("back", 10));
+		assertArrayEquals(new int[] {2}, index.search("TTING", 10));
+	}
+
+	@Test
+	public void emptyQueryAndZeroLimitFindNothing() {
+		OptionIndex index = new OptionIndex(new MenuDefinition("t", new String[] {"a", "b"}, false, 0, "", "", "").getOptionSource());
+
+		assertEquals(0, index.search("", 10).length);
+		assertEquals(0, index.search("a", 0).length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNegativeLimit() {
+		new OptionIndex(new MenuDefinition("t", new String[] {"a"}, false, 0, "", "", "").getOptionSource()).search("a", -1);
+	}
+
+	/**
+	 * Prefix matches in text order, then substring and trigram matches by the number of trigrams shared, a substring counting one more.
+	 */
+	private static int[] bruteForce(final String[] options, String query, int limit) {
+		Set<String> queryTrigrams = trigrams(query);
+		int k = queryTrigrams.size();
+		int threshold = (k + 1) / 2;
+		List<int[]> prefix = new ArrayList<>();
+		List<int[]> rest = new ArrayList<>();
+
+		for (int i = 0; i < options.length; i++) {
+			String option = options[i];
+			if (option.startsWith(query)) {
+				prefix.add(new int[] {i, 0});
+				continue;
+			}
+			if (query.length() < 3) {
+				continue;
+			}
+
+			Set<String> optionTrigrams = trigrams(option);
+			int shared = 0;
+			for (String trigram : queryTrigrams) {
+				if (optionTrigrams.contains(trigram)) {
+					shared++;
+				}
+			}
+			if (shared >= threshold) {
+				rest.add(new int[] {i, shared == k && option.contains(query) ? k + 1 : shared});
+			}
+		}
+
+		Collections.sort(prefix, new Comparator<int[]>() {
+			@Override
+			public int compare(int[] a, int[] b) {
+				int c = options[a[0]].compareTo(options[b[0]]);
+				return c != 0 ? c : a[0] - b[0];
+			}
+		});
+		Collections.sort(rest, new Comparator<int[]>() {
+			@Override
+			public int compare(int[] a, int[] b) {
+				return a[1] != b[1] ? b[1] - a[1] : a[0] - b[0];
+			}
+		});
+
+		prefix.addAll(rest);
+		int[] ret = new int[Math.min(limit, prefix.size())];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = prefix.get(i)[0] + 1;
+		}
+		return ret;
+	}
+
+	private static Set<String> trigrams(String s) {
+		Set<String> ret = new HashSet<>();
+		for (int i = 0; i + 3 <= s.length(); i++) {
+			ret.add(s.substring(i, i + 3));
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,87 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link Menu#replay(int[], boolean) replay} applies choices exactly as getInput would, without console input or output.
+ * @author Michael Bradley
+ *
+ */
+public class ReplayTest {
+
+	private static Menu menu() {
+		return new Menu("t", new String[] {"a", "b", "c"}, true, 0, "Exit");
+	}
+
+	@Test
+	public void countsAppliedRejectedAndExited() {
+		Menu menu = menu();
+
+		ReplayResult result = menu.replay(new int[] {1, 4, 0, -1, 3, 0}, true);
+
+		assertEquals(4, result.getApplied());
+		assertEquals(2, result.getRejected());
+		assertEquals(2, result.getExited());
+		assertEquals(6, result.getTotal());
+		assertEquals(0, menu.getChoice());
+		assertEquals(3, menu.getLastChoice());
+		assertArrayEquals(new boolean[] {true, false, true}, menu.getChosen());
+	}
+
+	@Test
+	public void matchesGetInput() {
+		int[] choices = {2, 2, 3, 0, 1};
+		Menu replayed = menu();
+		Menu entered = menu();
+		entered.setConsole(new MenuConsole(new ByteArrayInputStream("2 2 3 0 1".getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream()));
+
+		replayed.replay(choices, true);
+		for (int i = 0; i < choices.length; i++) {
+			entered.getInput(true);
+		}
+
+		assertEquals(entered.getChoice(), replayed.getChoice());
+		assertEquals(entered.getLastChoice(), replayed.getLastChoice());
+		assertArrayEquals(entered.getChosen(), replayed.getChosen());
+	}
+
+	@Test
+	public void replaysRange() {
+		Menu menu = menu();
+
+		ReplayResult result = menu.replay(new int[] {1, 2, 3}, 1, 2, false);
+
+		assertEquals(1, result.getApplied());
+		assertEquals(2, menu.getChoice());
+		assertEquals(0, menu.getNumChosen());
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void rejectsRangeOutsideArray() {
+		menu().replay(new int[] {1}, 0, 2, false);
+	}
+
+	@Test
+	public void replaysReader() {
+		Menu menu = menu();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		menu.setConsole(new MenuConsole(new ByteArrayInputStream(new byte[0]), out));
+		ChoiceReader reader = new ChoiceReader(new ByteArrayInputStream("1\nx 2 99\n0 3".getBytes(StandardCharsets.US_ASCII)), 4);
+
+		ReplayResult result = menu.replay(reader, true);
+
+		assertEquals(4, result.getApplied());
+		assertEquals(2, result.getRejected());
+		assertEquals(1, result.getExited());
+		assertEquals(3, menu.getChoice());
+		assertEquals(3, menu.getNumChosen());
+		assertEquals(0, out.size());
+	}
+}
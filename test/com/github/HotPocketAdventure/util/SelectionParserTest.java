@@ -0,0 +1,133 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Checks the multi-select syntax accepted by {@link SelectionParser} and how {@link Menu} applies selections.
+ * @author Michael Bradley
+ *
+ */
+public class SelectionParserTest {
+
+	@Test
+	public void parsesNumbersAndRanges() {
+		ChosenSet set = SelectionParser.parse("1,3 5-9,\t64-66 198-200", 200);
+
+		assertArrayEquals(new int[] {0, 2, 4, 5, 6, 7, 8, 63, 64, 65, 197, 198, 199}, set.toIndices());
+	}
+
+	@Test
+	public void parsesWords() {
+		assertEquals(50, SelectionParser.parse("ALL", 50).count());
+		assertEquals(0, SelectionParser.parse("none", 50).count());
+		assertEquals(1, SelectionParser.parse("None, 7", 50).count());
+	}
+
+	@Test
+	public void rejectsInvalidItems() {
+		String[] invalid = {"", "  , ", "0", "201", "5-3", "1,x", "1-", "-3", "1--2", "99999999999", "2147483648", "+1"};
+
+		for (String text : invalid) {
+			assertNull(text, SelectionParser.parse(text, 200));
+		}
+	}
+
+	@Test
+	public void acceptsWholeRange() {
+		assertEquals(1000000, SelectionParser.parse("1-1000000", 1000000).count());
+	}
+
+	private static Menu menu() {
+		return new Menu("t", new String[] {"a", "b", "c"}, true, 0, "Exit", "Y", "N");
+	}
+
+	@Test
+	public void menuSelectsRanges() {
+		Menu menu = menu();
+
+		menu.select("1-2", true);
+
+		assertArrayEquals(new int[] {1, 2}, menu.getSelected());
+		assertTrue(menu.isChosenAt(0));
+		assertFalse(menu.isChosenAt(2));
+		assertEquals(2, menu.getNumChosen());
+	}
+
+	@Test
+	public void menuSelectsWithoutChangingChosen() {
+		Menu menu = menu();
+
+		menu.select("all", false);
+
+		assertArrayEquals(new int[] {1, 2, 3}, menu.getSelected());
+		assertEquals(0, menu.getNumChosen());
+	}
+
+	@Test
+	public void selectingChosenOptionsCopiesNothing() {
+		Menu menu = menu();
+		menu.select("2,3", true);
+		Menu copy = new Menu(menu);
+		String text = copy.toString(true);
+
+		copy.select("3", true);
+
+		assertSame(text, copy.toString(true));
+		assertSame(menu.chosen, copy.chosen);
+		assertArrayEquals(new int[] {3}, copy.getSelected());
+	}
+
+	@Test
+	public void selectingExitIsRecordedAsAChoice() {
+		Menu menu = menu();
+		ChoiceHistory history = new ChoiceHistory(8);
+		menu.setHistory(history);
+
+		menu.select("1,2", true);
+		assertEquals(0, history.size());
+
+		menu.select(" 0 ", true);
+		assertEquals(0, menu.getChoice());
+		assertEquals(0, menu.getSelected().length);
+		assertEquals(1, history.size());
+		assertEquals(0, history.getChoice(0));
+		assertFalse(history.isFlipped(0));
+	}
+
+	@Test
+	public void menuReadsSelectionsFromConsole() {
+		Menu menu = menu();
+		menu.setConsole(new MenuConsole(new ByteArrayInputStream("4\n1, 3\n".getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream()));
+
+		menu.getMultiInput(true);
+
+		assertArrayEquals(new int[] {1, 3}, menu.getSelected());
+		assertEquals(2, menu.getNumChosen());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void menuRejectsInvalidSelection() {
+		menu().select("4", false);
+	}
+
+	@Test
+	public void containsAllMatchesOr() {
+		ChosenSet set = SelectionParser.parse("1-70", 200);
+
+		assertTrue(set.containsAll(SelectionParser.parse("64-70,1", 200)));
+		assertFalse(set.containsAll(SelectionParser.parse("64-71", 200)));
+		assertTrue(set.containsAll(new ChosenSet(200)));
+		assertEquals(0, set.or(SelectionParser.parse("2-69", 200)));
+	}
+}
@@ -0,0 +1,66 @@
+package com.github.HotPocketAdventure.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link StringPool} hands out one instance per text, including when interned from several threads.
+ * @author Michael Bradley
+ *
+ */
+public class StringPoolTest {
+
+	@Test
+	public void returnsFirstInstance() {
+		StringPool pool = new StringPool();
+		String first = new String("Back");
+		String second = new String("Back");
+
+		assertSame(first, pool.intern(first));
+		assertSame(first, pool.intern(second));
+		assertNotSame(first, pool.intern(new String("back")));
+		assertEquals(2, pool.size());
+	}
+
+	@Test
+	public void agreesAcrossThreads() throws Exception {
+		final StringPool pool = new StringPool();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+			List<Future<String[]>> results = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				results.add(executor.submit(new Callable<String[]>() {
+					@Override
+					public String[] call() {
+						String[] ret = new String[1000];
+						for (int i = 0; i < ret.length; i++) {
+							ret[i] = pool.intern(new String("option " + i));
+						}
+						return ret;
+					}
+				}));
+			}
+
+			String[] first = results.get(0).get();
+			for (Future<String[]> result : results) {
+				String[] texts = result.get();
+				for (int i = 0; i < texts.length; i++) {
+					assertSame(first[i], texts[i]);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}